@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.core;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.betoncraft.flier.api.content.Action;
+import pl.betoncraft.flier.api.content.Activator;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+import pl.betoncraft.flier.api.core.Modification;
+import pl.betoncraft.flier.api.core.Owner;
+
+/**
+ * Compares checking usages through activator and action interfaces, like
+ * before {@link UsageCompiler}, with the generated evaluators. Usages are
+ * built from several activator and action types, so the interface call sites
+ * are megamorphic, as they are on a server with many different items.
+ *
+ * @author Jakub Sapalski
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UsageBenchmark {
+
+	@Param({ "64" })
+	public int usages;
+
+	private Activator[][] waiting;
+	private Activator[][] counting;
+	private Action[][] actions;
+	private UsageEvaluator[] evaluators;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		waiting = new Activator[usages][];
+		counting = new Activator[usages][];
+		actions = new Action[usages][];
+		evaluators = new UsageEvaluator[usages];
+		for (int i = 0; i < usages; i++) {
+			waiting[i] = new Activator[] { activator(random), activator(random) };
+			counting[i] = new Activator[] { activator(random) };
+			actions[i] = new Action[] { action(random), action(random) };
+			evaluators[i] = UsageCompiler.compile(waiting[i], counting[i], actions[i]);
+		}
+	}
+
+	@Benchmark
+	public int interfaces() {
+		int used = 0;
+		for (int u = 0; u < usages; u++) {
+			Activator[] w = waiting[u];
+			boolean active = true;
+			for (int i = 0; i < w.length && active; i++) {
+				active = w[i].isActive(null, null);
+			}
+			Activator[] c = counting[u];
+			for (int i = 0; i < c.length && active; i++) {
+				active = c[i].isActive(null, null);
+			}
+			if (active) {
+				Action[] a = actions[u];
+				for (int i = 0; i < a.length; i++) {
+					a[i].act(null, null);
+				}
+				used++;
+			}
+		}
+		return used;
+	}
+
+	@Benchmark
+	public int generated() {
+		int used = 0;
+		for (int u = 0; u < usages; u++) {
+			UsageEvaluator evaluator = evaluators[u];
+			if (evaluator.waiting(null) < 0 && evaluator.counting(null)) {
+				evaluator.act(null);
+				used++;
+			}
+		}
+		return used;
+	}
+
+	private static Activator activator(Random random) {
+		switch (random.nextInt(8)) {
+		case 0:  return new Activator0();
+		case 1:  return new Activator1();
+		case 2:  return new Activator2();
+		case 3:  return new Activator3();
+		case 4:  return new Activator4();
+		case 5:  return new Activator5();
+		case 6:  return new Activator6();
+		default: return new Activator7();
+		}
+	}
+
+	private static Action action(Random random) {
+		switch (random.nextInt(6)) {
+		case 0:  return new Action0();
+		case 1:  return new Action1();
+		case 2:  return new Action2();
+		case 3:  return new Action3();
+		case 4:  return new Action4();
+		default: return new Action5();
+		}
+	}
+
+	public static abstract class TestActivator implements Activator {
+		protected int checks = 0;
+		@Override public String getID() { return getClass().getSimpleName(); }
+		@Override public String getName(CommandSender player) { return getID(); }
+		@Override public Optional<Owner> getOwner() { return Optional.empty(); }
+		@Override public void addModification(Modification mod) {}
+		@Override public void removeModification(Modification mod) {}
+	}
+
+	public static abstract class TestAction implements Action {
+		protected long acts = 0;
+		@Override public String getID() { return getClass().getSimpleName(); }
+		@Override public String getName(CommandSender player) { return getID(); }
+		@Override public Optional<Owner> getOwner() { return Optional.empty(); }
+		@Override public void addModification(Modification mod) {}
+		@Override public void removeModification(Modification mod) {}
+	}
+
+	public static class Activator0 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return ++checks != 0; }
+	}
+	public static class Activator1 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return (checks += 2) != 1; }
+	}
+	public static class Activator2 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return (checks += 3) != 1; }
+	}
+	public static class Activator3 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return (checks ^= 1) >= 0; }
+	}
+	public static class Activator4 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return player == source; }
+	}
+	public static class Activator5 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return checks++ >= 0 || player != null; }
+	}
+	public static class Activator6 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return (checks | 1) != 0; }
+	}
+	public static class Activator7 extends TestActivator {
+		@Override public boolean isActive(InGamePlayer player, InGamePlayer source) { return --checks != 1; }
+	}
+
+	public static class Action0 extends TestAction {
+		@Override public boolean act(InGamePlayer target, InGamePlayer source) { acts++; return true; }
+	}
+	public static class Action1 extends TestAction {
+		@Override public boolean act(InGamePlayer target, InGamePlayer source) { acts += 2; return true; }
+	}
+	public static class Action2 extends TestAction {
+		@Override public boolean act(InGamePlayer target, InGamePlayer source) { acts ^= 3; return false; }
+	}
+	public static class Action3 extends TestAction {
+		@Override public boolean act(InGamePlayer target, InGamePlayer source) { acts--; return true; }
+	}
+	public static class Action4 extends TestAction {
+		@Override public boolean act(InGamePlayer target, InGamePlayer source) { acts *= 3; return acts > 0; }
+	}
+	public static class Action5 extends TestAction {
+		@Override public boolean act(InGamePlayer target, InGamePlayer source) { acts += 5; return true; }
+	}
+
+}
@@ -23,22 +23,28 @@
  */
 package pl.betoncraft.flier;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.entity.Entity;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
-import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 
@@ -78,7 +84,6 @@ import pl.betoncraft.flier.api.content.Game;
 import pl.betoncraft.flier.api.content.Lobby;
 import pl.betoncraft.flier.api.content.Wings;
 import pl.betoncraft.flier.api.core.Arena;
-import pl.betoncraft.flier.api.core.Attacker;
 import pl.betoncraft.flier.api.core.ConfigManager;
 import pl.betoncraft.flier.api.core.DatabaseManager;
 import pl.betoncraft.flier.api.core.FancyStuffWrapper;
@@ -103,16 +108,23 @@ import pl.betoncraft.flier.effect.ParticleEffect;
 import pl.betoncraft.flier.effect.PrivateSoundEffect;
 import pl.betoncraft.flier.effect.PublicSoundEffect;
 import pl.betoncraft.flier.engine.MultiplyingEngine;
+import pl.betoncraft.flier.event.FlierGameEndEvent.GameEndCause;
 import pl.betoncraft.flier.game.DeathMatchGame;
 import pl.betoncraft.flier.game.TeamDeathMatch;
 import pl.betoncraft.flier.integration.Integrations;
 import pl.betoncraft.flier.lobby.PhysicalLobby;
 import pl.betoncraft.flier.stats.StatisticWriter;
+import pl.betoncraft.flier.util.AttackerRegistry;
+import pl.betoncraft.flier.util.BackupStore;
+import pl.betoncraft.flier.util.ConfigWatcher;
+import pl.betoncraft.flier.util.ContentValidator;
 import pl.betoncraft.flier.util.Coordinator;
 import pl.betoncraft.flier.util.DefaultConfigManager;
 import pl.betoncraft.flier.util.DefaultDatabaseManager;
 import pl.betoncraft.flier.util.DefaultFancyStuffWrapper;
+import pl.betoncraft.flier.util.EmissionBudget;
 import pl.betoncraft.flier.util.LangManager;
+import pl.betoncraft.flier.util.TimingWheel;
 import pl.betoncraft.flier.util.Utils;
 import pl.betoncraft.flier.wings.SimpleWings;
 
@@ -127,6 +139,7 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 	private Map<String, EngineFactory> engineTypes = new HashMap<>();
 	private Map<String, WingsFactory> wingTypes = new HashMap<>();
 	private Map<String, GameFactory> gameTypes = new HashMap<>();
+	private Map<String, GameValidator> gameValidators = new HashMap<>();
 	private Map<String, LobbyFactory> lobbyTypes = new HashMap<>();
 	private Map<String, BonusFactory> bonusTypes = new HashMap<>();
 	private Map<String, ActionFactory> actionTypes = new HashMap<>();
@@ -135,6 +148,10 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 	
 	private Map<String, Lobby> lobbies = new HashMap<>();
 	private Map<UUID, InGamePlayer> players = new HashMap<>();
+	private Map<UUID, Lobby> lobbyPlayers = new HashMap<>();
+	
+	private CompletableFuture<Boolean> reloading;
+	private ConfigWatcher watcher;
 
 	@Override
 	public void onEnable() {
@@ -148,8 +165,8 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 		registerEngine("multiplyingEngine", s -> new MultiplyingEngine(s));
 		registerWings("simpleWings", s -> new SimpleWings(s));
 		registerLobby("physicalLobby", s -> new PhysicalLobby(s));
-		registerGame("teamDeathMatch", (s, l) -> new TeamDeathMatch(s, l));
-		registerGame("deathMatch", (s, l) -> new DeathMatchGame(s, l));
+		registerGame("teamDeathMatch", (s, l) -> new TeamDeathMatch(s, l), (s, l) -> TeamDeathMatch.validate(s, l));
+		registerGame("deathMatch", (s, l) -> new DeathMatchGame(s, l), (s, l) -> DeathMatchGame.validate(s, l));
 		registerBonus("entity", (s, g, o) -> new EntityBonus(s, g, o));
 		registerBonus("invisible", (s, g, o) -> new ProximityBonus(s, g, o));
 		registerBonus("target", (s, g, o) -> new TargetBonus(s, g, o));
@@ -185,24 +202,14 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 		registerEffect("particle", s -> new ParticleEffect(s));
 		registerEffect("glow", s -> new GlowingEffect(s));
 		
-		// add projectile cleanup listener
-		Bukkit.getPluginManager().registerEvents(new Listener() {
-			@EventHandler
-			public void onChunkUnload(ChunkUnloadEvent event) {
-				Entity[] entities = event.getChunk().getEntities();
-				for (int i = 0; i < entities.length; i++) {
-					if (entities[i] instanceof Projectile && Attacker.getAttacker((Projectile) entities[i]) != null) {
-						entities[i].remove();
-					}
-				}
-			}
-		}, this);
-		
+		new AttackerRegistry();
+		new TimingWheel();
 		new Coordinator(); // temporary solution
 		
 		new Integrations();
 		
-		// TODO add after-crash player restore
+		// restore players whose backups were not released before a crash
+		new BackupStore();
 		
 		// schedule loading after all plugins are enabled
 		Bukkit.getScheduler().runTask(this, () -> reload());
@@ -219,83 +226,243 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 		for (Lobby lobby : lobbies.values()) {
 			lobby.stop();
 		}
+		if (watcher != null) {
+			watcher.stopWatching();
+		}
+		BackupStore.shutdown();
 		databaseManager.disconnect();
 	}
 
 	@Override
-	public void reload() {
-		try {
-			// reload configuration files
-			reloadConfig();
-			configManager = new DefaultConfigManager();
-			LangManager.reload();
-			// stop current lobbies and games
+	public CompletableFuture<Boolean> reload(boolean incremental) {
+		if (reloading != null) {
+			return reloading;
+		}
+		CompletableFuture<Boolean> result = new CompletableFuture<>();
+		reloading = result;
+		reloadConfig();
+		// snapshot registered types, so validation does not touch them from other threads
+		Map<String, Set<String>> types = new HashMap<>();
+		types.put("lobby", new HashSet<>(lobbyTypes.keySet()));
+		types.put("game", new HashSet<>(gameTypes.keySet()));
+		// parse and validate all files on worker threads
+		ExecutorService pool = DefaultConfigManager.createPool();
+		CompletableFuture<YamlConfiguration> messages = CompletableFuture.supplyAsync(LangManager::loadMessages, pool);
+		CompletableFuture<DefaultConfigManager> content = DefaultConfigManager.loadAsync(pool).thenApply(manager -> {
+			try {
+				new ContentValidator(manager, types).validate();
+			} catch (LoadingException e) {
+				throw new CompletionException(e);
+			}
+			return manager;
+		});
+		// swap the configuration on the main thread once everything succeeded
+		content.thenAcceptBoth(messages, (manager, file) -> Bukkit.getScheduler().runTask(this, () -> {
+			reloading = null;
+			try {
+				result.complete(apply(manager, file, incremental));
+			} catch (RuntimeException e) {
+				getLogger().severe("There was an error during loading: " + e);
+				e.printStackTrace();
+				result.complete(false);
+			}
+		})).whenComplete((v, error) -> {
+			pool.shutdown();
+			if (error != null && isEnabled()) {
+				Bukkit.getScheduler().runTask(this, () -> {
+					reloading = null;
+					Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+					if (cause instanceof LoadingException) {
+						logError((LoadingException) cause);
+					} else {
+						getLogger().severe("There was an error during loading: " + cause);
+					}
+					result.complete(false);
+				});
+			}
+		});
+		return result;
+	}
+
+	private boolean apply(ConfigManager manager, YamlConfiguration messages, boolean incremental) {
+		ConfigManager old = configManager;
+		// find lobbies which need to be restarted
+		Set<String> changed = new HashSet<>();
+		if (incremental && old != null) {
+			changed.addAll(DefaultConfigManager.changedIDs(old.getLobbies(), manager.getLobbies()));
+			Set<String> arenas = DefaultConfigManager.changedIDs(old.getArenas(), manager.getArenas());
 			for (Lobby lobby : lobbies.values()) {
-				lobby.stop();
+				if (lobby.getArenas().keySet().stream().anyMatch(arena -> arenas.contains(arena))) {
+					changed.add(lobby.getID());
+				}
 			}
-			lobbies.clear();
-			// load new lobbies and games
-			ConfigurationSection lobbySection = configManager.getLobbies();
+		} else {
+			changed.addAll(lobbies.keySet());
+			changed.addAll(manager.getLobbies().getKeys(false));
+		}
+		// load new lobbies before stopping the old ones, so broken content
+		// leaves the old configuration running
+		Map<String, Lobby> loaded = new HashMap<>();
+		configManager = manager;
+		try {
+			ConfigurationSection lobbySection = manager.getLobbies();
 			if (lobbySection != null) {
-				for (String id : lobbySection.getKeys(false)) {
+				for (String id : changed) {
 					String name = "lobby";
 					ConfigurationSection section = lobbySection.getConfigurationSection(id);
+					if (section == null) {
+						continue;
+					}
 					String type = getType(section);
 					LobbyFactory factory = getLobbyFactory(type);
 					checkFactory(factory, name, type);
-					lobbies.put(id, factory.get(section));
+					try {
+						loaded.put(id, factory.get(section));
+					} catch (LoadingException e) {
+						throw loadingError(e, id, name);
+					}
+				}
+			}
+			// games in kept lobbies will load the new content later, check it now
+			for (Lobby lobby : lobbies.values()) {
+				if (changed.contains(lobby.getID())) {
+					continue;
+				}
+				for (String game : lobby.getGames().keySet()) {
+					try {
+						validateGame(game, lobby);
+					} catch (NoArenaException e) {
+						throw loadingError(new LoadingException(String.format(
+								"Game '%s' does not have any viable arena to be played on.", game)),
+								lobby.getID(), "lobby");
+					} catch (LoadingException e) {
+						throw loadingError(e, lobby.getID(), "lobby");
+					}
+				}
+			}
+			LangManager.reload(messages);
+		} catch (LoadingException | RuntimeException e) {
+			loaded.values().forEach(lobby -> lobby.stop());
+			configManager = old;
+			if (e instanceof LoadingException) {
+				logError((LoadingException) e);
+			} else {
+				getLogger().severe("There was an error during loading: " + e);
+				e.printStackTrace();
+			}
+			getLogger().severe("The previous configuration is still used.");
+			return false;
+		}
+		// stop changed lobbies and their games, other games keep running
+		Map<String, Set<UUID>> moved = new HashMap<>();
+		for (String id : changed) {
+			Lobby lobby = lobbies.remove(id);
+			if (lobby != null) {
+				if (incremental) {
+					moved.put(id, new HashSet<>(lobby.getPlayers()));
+				}
+				lobby.stop();
+			}
+		}
+		// start new lobbies and bring back players from the restarted ones
+		for (Entry<String, Lobby> entry : loaded.entrySet()) {
+			lobbies.put(entry.getKey(), entry.getValue());
+			for (UUID uuid : moved.getOrDefault(entry.getKey(), Collections.emptySet())) {
+				Player player = Bukkit.getPlayer(uuid);
+				if (player != null) {
+					entry.getValue().addPlayer(player);
+				}
+			}
+		}
+		// send item names from the new messages to games which keep running
+		// and don't reuse games with old content when they end
+		for (Lobby lobby : lobbies.values()) {
+			if (!changed.contains(lobby.getID())) {
+				lobby.dropReusedGames();
+				for (List<Game> games : lobby.getGames().values()) {
+					for (Game game : games) {
+						game.getPlayers().values().forEach(InGamePlayer::updateKit);
+					}
 				}
 			}
-			// unregister the old automatic lobby joining
-			if (autoJoin != null) {
-				HandlerList.unregisterAll(autoJoin);
+		}
+		// apply new limits of particles and sounds
+		new EmissionBudget(getConfig().getConfigurationSection("budget"));
+		// start or stop watching configuration files
+		if (getConfig().getBoolean("reload.watch", false)) {
+			if (watcher == null) {
+				try {
+					watcher = new ConfigWatcher(getConfig().getInt("reload.debounce", 40));
+				} catch (IOException e) {
+					getLogger().warning("Could not watch configuration files: " + e.getMessage());
+				}
 			}
-			// register new automatic lobby joining in case it's enabled
-			if (getConfig().getBoolean("autojoin.enabled", false)) {
-				String name = getConfig().getString("autojoin.lobby", null);
-				if (name != null) {
-					Lobby lobby = lobbies.get(name);
-					if (lobby != null) {
-						autoJoin = new Listener() {
-							@EventHandler
-							public void onJoin(PlayerJoinEvent event) {
-								BukkitRunnable joiner = new BukkitRunnable() {
-									@Override
-									public void run() {
-										lobby.addPlayer(event.getPlayer());
-									}
-								};
-								int delay = getConfig().getInt("autojoin.delay", 0);
-								if (delay == 0) {
-									joiner.run();
-								} else {
-									joiner.runTaskLater(FlierPlugin.this, delay);
+		} else if (watcher != null) {
+			watcher.stopWatching();
+			watcher = null;
+		}
+		// unregister the old automatic lobby joining
+		if (autoJoin != null) {
+			HandlerList.unregisterAll(autoJoin);
+		}
+		// register new automatic lobby joining in case it's enabled
+		if (getConfig().getBoolean("autojoin.enabled", false)) {
+			String name = getConfig().getString("autojoin.lobby", null);
+			if (name != null) {
+				Lobby lobby = lobbies.get(name);
+				if (lobby != null) {
+					autoJoin = new Listener() {
+						@EventHandler
+						public void onJoin(PlayerJoinEvent event) {
+							BukkitRunnable joiner = new BukkitRunnable() {
+								@Override
+								public void run() {
+									lobby.addPlayer(event.getPlayer());
 								}
+							};
+							int delay = getConfig().getInt("autojoin.delay", 0);
+							if (delay == 0) {
+								joiner.run();
+							} else {
+								joiner.runTaskLater(FlierPlugin.this, delay);
 							}
-						};
-						// add all online players in case of a reload
+						}
+					};
+					// add online players in case of a reload; an incremental reload
+					// leaves them alone unless this lobby was restarted, and never
+					// pulls players out of other lobbies
+					if (!incremental || changed.contains(name)) {
 						for (Player player : Bukkit.getOnlinePlayers()) {
-							lobby.addPlayer(player);
+							if (!lobbyPlayers.containsKey(player.getUniqueId())) {
+								lobby.addPlayer(player);
+							}
 						}
-						// add all players joining in the future
-						Bukkit.getPluginManager().registerEvents(autoJoin, this);
-					} else {
-						getLogger().warning(String.format("Automatic joining specifies non-existing '%s' lobby.", name));
 					}
+					// add all players joining in the future
+					Bukkit.getPluginManager().registerEvents(autoJoin, this);
 				} else {
-					getLogger().warning("Automatic joining is enabled but the lobby is not specified.");
+					getLogger().warning(String.format("Automatic joining specifies non-existing '%s' lobby.", name));
 				}
+			} else {
+				getLogger().warning("Automatic joining is enabled but the lobby is not specified.");
 			}
-		} catch (LoadingException e) {
-			getLogger().severe("There was an error during loading:");
-			getLogger().severe(String.format("    - %s", e.getMessage()));
-			Throwable cause = e.getCause();
-			while (cause != null) {
-				getLogger().severe(String.format("    - %s", cause.getMessage()));
-				cause = cause.getCause();
-			}
 		}
-		getLogger().info(String.format("Loaded %d lobbies.", lobbies.size()));
+		if (incremental) {
+			getLogger().info(String.format("Reloaded %d of %d lobbies.", changed.size(), lobbies.size()));
+		} else {
+			getLogger().info(String.format("Loaded %d lobbies.", lobbies.size()));
+		}
+		return true;
+	}
+	
+	private void logError(LoadingException e) {
+		getLogger().severe("There was an error during loading:");
+		getLogger().severe(String.format("    - %s", e.getMessage()));
+		Throwable cause = e.getCause();
+		while (cause != null) {
+			getLogger().severe(String.format("    - %s", cause.getMessage()));
+			cause = cause.getCause();
+		}
 	}
 	
 	@Override
@@ -321,6 +488,22 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 	@Override
 	public void playerLeavesGame(InGamePlayer player) {
 		players.remove(player.getPlayer().getUniqueId());
+		TimingWheel.cancelAll(player);
+	}
+	
+	@Override
+	public void playerJoinsLobby(UUID player, Lobby lobby) {
+		lobbyPlayers.put(player, lobby);
+	}
+	
+	@Override
+	public void playerLeavesLobby(UUID player, Lobby lobby) {
+		lobbyPlayers.remove(player, lobby);
+	}
+	
+	@Override
+	public Lobby getPlayerLobby(UUID player) {
+		return lobbyPlayers.get(player);
 	}
 	
 	@Override
@@ -386,6 +569,25 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 		}
 	}
 	
+	@Override
+	public void validateGame(String id, Lobby lobby) throws LoadingException, NoArenaException {
+		String name = "game";
+		ConfigurationSection section = getSection(configManager.getGames(), id, name);
+		String type = getType(section);
+		GameFactory factory = getGameFactory(type);
+		checkFactory(factory, name, type);
+		GameValidator validator = gameValidators.get(type);
+		try {
+			if (validator != null) {
+				validator.validate(section, lobby);
+			} else {
+				factory.get(section, lobby).stop(GameEndCause.ABORTED);
+			}
+		} catch (LoadingException e) {
+			throw loadingError(e, id, name);
+		}
+	}
+	
 	@Override
 	public Action getAction(String id, Optional<Owner> owner) throws LoadingException {
 		String name = "action";
@@ -559,6 +761,13 @@ public class FlierPlugin extends JavaPlugin implements Flier {
 	@Override
 	public void registerGame(String name, GameFactory factory) {
 		gameTypes.put(name, factory);
+		gameValidators.remove(name);
+	}
+	
+	@Override
+	public void registerGame(String name, GameFactory factory, GameValidator validator) {
+		gameTypes.put(name, factory);
+		gameValidators.put(name, validator);
 	}
 	
 	@Override
@@ -25,15 +25,14 @@ package pl.betoncraft.flier.action;
 
 import java.util.Optional;
 
-import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Entity;
 import org.bukkit.util.Vector;
 
-import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
+import pl.betoncraft.flier.util.TimingWheel;
 
 /**
  * Launches players in the direction of looking.
@@ -57,7 +56,7 @@ public class LaunchAction extends DefaultAction {
 			Vector vel = target.getPlayer().getLocation().getDirection().multiply(modMan.modifyNumber(SPEED, speed));
 			target.getPlayer().setVelocity(vel);
 			if (!target.getPlayer().isGliding()) {
-				Bukkit.getScheduler().runTask(Flier.getInstance(), () -> {
+				TimingWheel.schedule(1, target, () -> {
 					target.getPlayer().setGliding(true);
 					target.getPlayer().setVelocity(vel);
 				});
@@ -65,7 +64,7 @@ public class LaunchAction extends DefaultAction {
 		};
 		if (((Entity) target.getPlayer()).isOnGround()) {
 			target.getPlayer().setVelocity(new Vector(0, 2, 0));
-			Bukkit.getScheduler().runTaskLater(Flier.getInstance(), launch, 5);
+			TimingWheel.schedule(5, target, launch);
 		} else {
 			launch.run();
 		}
@@ -25,18 +25,16 @@ package pl.betoncraft.flier.action;
 
 import java.util.Optional;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
-import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
+import pl.betoncraft.flier.util.TimingWheel.Timer;
 
 /**
  * Takes off the player after he sprints up to a required speed.
@@ -49,7 +47,12 @@ public class SprintStartingAction extends DefaultAction {
 	private final float max;
 	private final float step;
 	
-	private Optional<BukkitRunnable> stopper = Optional.empty();
+	private final Timer stopper = new Timer(() -> reset());
+	private final Timer takeoff = new Timer(() -> takeoff());
+
+	private InGamePlayer sprinter;
+	private Vector takeoffVelocity;
+	private int takeoffTicks;
 	private Optional<Float> direction = Optional.empty();
 	private Optional<Location> lastLoc = Optional.empty();
 
@@ -65,6 +68,7 @@ public class SprintStartingAction extends DefaultAction {
 	@Override
 	public boolean act(InGamePlayer target, InGamePlayer source) {
 		Player player = target.getPlayer();
+		sprinter = target;
 		if (player.isSprinting() && ((Entity) player).isOnGround()) {
 			Location loc = player.getLocation().clone();
 			Vector vec;
@@ -79,46 +83,41 @@ public class SprintStartingAction extends DefaultAction {
 			lastLoc = Optional.of(loc);
 			// direction must be correct (player is running straight)
 			if (Math.abs(standarize(dir) - standarize(direction.get())) < 15) {
-				// reset the stopper so it doesn't break this speed up
-				if (stopper.isPresent()) {
-					stopper.get().cancel();
-				}
-				// schedule it again to reset the speed in case the player stops
-				stopper = Optional.of(new BukkitRunnable() {
-					@Override
-					public void run() {
-						reset(player);
-					}
-				});
-				stopper.get().runTaskLater(Flier.getInstance(), 1);
+				// move the stopper so it resets the speed only if the player stops
+				stopper.schedule(1, target);
 				// increase the speed or start if it's maxed
 				if (player.getWalkSpeed() < max) {
 					// increase the speed
 					player.setWalkSpeed(Math.min(max, player.getWalkSpeed() + step));
 				} else {
 					// speed maxed, take-off
-					Vector vel = player.getLocation().getDirection().setY(0.3).normalize().multiply(max);
-					Runnable takeoff = () -> {
-						player.setGliding(true);
-						player.setVelocity(vel);
-						player.setSneaking(true);
-					};
-					for (int i = 0; i < 4; i++) {
-						Bukkit.getScheduler().runTaskLater(Flier.getInstance(), takeoff, i);
-					}
+					takeoffVelocity = player.getLocation().getDirection().setY(0.3).normalize().multiply(max);
+					takeoffTicks = 3;
+					takeoff.schedule(1, target);
 				}
 			} else {
-				reset(player);
+				reset();
 			}
 		}
 		return true;
 	}
 	
-	private void reset(Player player) {
-		stopper = Optional.empty();
+	private void reset() {
+		stopper.cancel();
 		direction = Optional.empty();
 		lastLoc = Optional.empty();
-		player.setWalkSpeed(WALK_SPEED);
+		sprinter.getPlayer().setWalkSpeed(WALK_SPEED);
+	}
+
+	private void takeoff() {
+		Player player = sprinter.getPlayer();
+		player.setGliding(true);
+		player.setVelocity(takeoffVelocity);
+		player.setSneaking(true);
+		// repeat it for a few ticks so the client doesn't stop gliding
+		if (--takeoffTicks > 0) {
+			takeoff.schedule(1, sprinter);
+		}
 	}
 	
 	private float standarize(float yaw) {
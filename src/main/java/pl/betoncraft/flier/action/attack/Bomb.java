@@ -25,25 +25,32 @@ package pl.betoncraft.flier.action.attack;
 
 import java.util.Optional;
 
-import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.TNTPrimed;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.BlockIterator;
+import org.bukkit.util.Vector;
 
 import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.content.Game;
 import pl.betoncraft.flier.api.core.Attacker;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
 import pl.betoncraft.flier.api.core.Target;
 import pl.betoncraft.flier.core.DefaultAttacker;
+import pl.betoncraft.flier.util.EmissionBudget;
+import pl.betoncraft.flier.util.EmissionBudget.Priority;
 
 /**
- * Spawns a TNT which explodes immediately.
+ * Drops a bomb which explodes after the fuse. It's either a real TNT or a
+ * virtual one, which only hits targets and shows the explosion.
  *
  * @author Jakub Sapalski
  */
@@ -51,28 +58,32 @@ public class Bomb extends DefaultAttack {
 
 	private static final String POWER = "power";
 	private static final String FUSE = "fuse";
+	private static final String VIRTUAL = "virtual";
+	private static final String LINE_OF_SIGHT = "line_of_sight";
 	
-	private static BombListener listener;
-
 	private final float yield;
 	private final int fuse;
+	private final boolean virtual;
+	private final boolean lineOfSight;
 
 	public Bomb(ConfigurationSection section, Optional<Owner> owner) throws LoadingException {
 		super(section, owner);
 		yield = (float) loader.loadPositiveDouble(POWER);
 		fuse = loader.loadNonNegativeInt(FUSE, 80);
-		// register a single listener for all bombs
-		if (listener == null) {
-			listener = new BombListener();
-			Bukkit.getPluginManager().registerEvents(listener, Flier.getInstance());
-		}
+		virtual = loader.loadBoolean(VIRTUAL, false);
+		lineOfSight = loader.loadBoolean(LINE_OF_SIGHT, true);
 	}
 
 	@Override
 	public boolean act(InGamePlayer target, InGamePlayer source) {
+		Attacker attacker = new DefaultAttacker(this, owner.get().getPlayer(), target, owner.get().getItem());
+		if (modMan.modifyBoolean(VIRTUAL, virtual)) {
+			new VirtualBomb(target, attacker);
+			return true;
+		}
 		TNTPrimed tnt = (TNTPrimed) target.getPlayer().getWorld().spawnEntity(
 				target.getPlayer().getLocation(), EntityType.PRIMED_TNT);
-		Attacker.saveAttacker(tnt, new DefaultAttacker(this, owner.get().getPlayer(), target, owner.get().getItem()));
+		Attacker.saveAttacker(tnt, attacker, false);
 		tnt.setIsIncendiary(false);
 		tnt.setVelocity(target.getPlayer().getVelocity());
 		tnt.setYield((float) modMan.modifyNumber(POWER, yield));
@@ -80,23 +91,104 @@ public class Bomb extends DefaultAttack {
 		return true;
 	}
 	
-	public class BombListener implements Listener {
-			
-		@EventHandler(priority=EventPriority.LOW)
-		public void onHit(EntityDamageByEntityEvent event) {
-			if (event.isCancelled()) {
+	/**
+	 * Falls like a TNT and hits all targets in the explosion radius, without
+	 * spawning any entities or calculating destroyed blocks.
+	 */
+	private class VirtualBomb extends BukkitRunnable {
+		
+		private final Game game;
+		private final int gameNumber;
+		private final Attacker attacker;
+		private final Location location;
+		private final Vector velocity;
+		private final World world;
+		private final double radius;
+		private final boolean lineOfSight;
+		private int fuse;
+		
+		private VirtualBomb(InGamePlayer target, Attacker attacker) {
+			this.game = target.getGame();
+			this.gameNumber = game.getUniqueNumber();
+			this.attacker = attacker;
+			this.location = target.getPlayer().getLocation();
+			this.velocity = target.getPlayer().getVelocity();
+			this.world = location.getWorld();
+			// vanilla explosions damage entities in twice the power
+			this.radius = modMan.modifyNumber(POWER, yield) * 2;
+			this.lineOfSight = modMan.modifyBoolean(LINE_OF_SIGHT, Bomb.this.lineOfSight);
+			this.fuse = (int) modMan.modifyNumber(FUSE, Bomb.this.fuse);
+			runTaskTimer(Flier.getInstance(), 0, 1);
+		}
+		
+		@Override
+		public void run() {
+			// the game has ended or was reused in the meantime
+			if (!game.isRunning() || game.getUniqueNumber() != gameNumber) {
+				cancel();
 				return;
 			}
-			Attacker attacker = Attacker.getAttacker(event.getDamager());
-			if (attacker != null && attacker.getDamager() instanceof Bomb) {
-				event.setCancelled(true);
-				Target target = attacker.getCreator().getGame().getTargets().get(event.getEntity().getUniqueId());
-				if (target != null && target.isTargetable()) {
-					attacker.getCreator().getGame().handleHit(target, attacker);
+			if (fuse-- <= 0) {
+				cancel();
+				explode();
+				return;
+			}
+			// move the same way as a primed TNT
+			Location next = location.clone().add(velocity);
+			if (!world.isChunkLoaded(next.getBlockX() >> 4, next.getBlockZ() >> 4) || next.getBlock().getType().isSolid()) {
+				velocity.multiply(0);
+			} else {
+				location.add(velocity);
+				velocity.setY(velocity.getY() - 0.04).multiply(0.98);
+			}
+			if (EmissionBudget.particle(game, attacker.getCreator(), Priority.TRAIL, world.getPlayers().size())) {
+				world.spawnParticle(Particle.SMOKE_NORMAL, location, 0);
+			}
+		}
+		
+		private void explode() {
+			int viewers = world.getPlayers().size();
+			if (EmissionBudget.particle(game, attacker.getCreator(), Priority.FEEDBACK, viewers)) {
+				world.spawnParticle(Particle.EXPLOSION_HUGE, location, 1);
+			}
+			if (EmissionBudget.sound(game, attacker.getCreator(), Priority.FEEDBACK, viewers)) {
+				world.playSound(location, Sound.ENTITY_GENERIC_EXPLODE, 4, 1);
+			}
+			double radiusSqr = radius * radius;
+			for (Target target : game.getTargets().values().toArray(new Target[0])) {
+				if (!target.isTargetable()) {
+					continue;
+				}
+				Location loc = target.getLocation();
+				if (loc.getWorld() != world || loc.distanceSquared(location) > radiusSqr) {
+					continue;
 				}
+				if (lineOfSight && isObstructed(loc)) {
+					continue;
+				}
+				game.handleHit(target, attacker);
 			}
 		}
-
+		
+		/**
+		 * Checks for solid blocks between the explosion and the location.
+		 */
+		private boolean isObstructed(Location loc) {
+			Vector direction = loc.toVector().subtract(location.toVector());
+			double distance = direction.length();
+			if (distance < 1) {
+				return false;
+			}
+			BlockIterator tracer = new BlockIterator(world, location.toVector(), direction, 0, (int) Math.ceil(distance));
+			while (tracer.hasNext()) {
+				Block block = tracer.next();
+				if (block.getType().isSolid()) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
 	}
 
 }
@@ -23,24 +23,19 @@
  */
 package pl.betoncraft.flier.action.attack;
 
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Particle;
-import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
-import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Game.Attitude;
 import pl.betoncraft.flier.api.core.Attacker;
 import pl.betoncraft.flier.api.core.InGamePlayer;
@@ -48,10 +43,13 @@ import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
 import pl.betoncraft.flier.api.core.Target;
 import pl.betoncraft.flier.core.DefaultAttacker;
+import pl.betoncraft.flier.util.EmissionBudget;
+import pl.betoncraft.flier.util.EmissionBudget.Priority;
 import pl.betoncraft.flier.util.ImmutableVector;
 
 /**
- * A homing missile which targets flying players.
+ * A homing missile which targets flying players. It can also be virtual,
+ * simulated without any entity.
  *
  * @author Jakub Sapalski
  */
@@ -65,9 +63,11 @@ public class HomingMissile extends DefaultAttack {
 	private static final String ENTITY = "entity";
 	private static final String TARGET_FRIENDS = "target_friends";
 	private static final String TARGET_SELF = "target_self";
+	private static final String VIRTUAL = "virtual";
+	private static final String PROXIMITY = "proximity";
+	
+	private static final int FAR_SEARCH_TICKS = 5;
 	
-	private static MissileListener listener;
-
 	private final EntityType entity;
 	private final int searchRange;
 	private final double searchRadius;
@@ -76,10 +76,13 @@ public class HomingMissile extends DefaultAttack {
 	private final double maneuverability;
 	private final boolean targetFriends;
 	private final boolean targetSelf;
+	private final boolean virtual;
+	private final double proximity;
 
 	public HomingMissile(ConfigurationSection section, Optional<Owner> owner) throws LoadingException {
 		super(section, owner);
-		entity = loader.loadEnum(ENTITY, EntityType.class);
+		virtual = loader.loadBoolean(VIRTUAL, false);
+		entity = virtual ? null : loader.loadEnum(ENTITY, EntityType.class);
 		searchRange = loader.loadPositiveInt(SEARCH_RANGE);
 		searchRadius = loader.loadPositiveDouble(SEARCH_RADIUS);
 		speed = loader.loadPositiveDouble(SPEED);
@@ -87,11 +90,7 @@ public class HomingMissile extends DefaultAttack {
 		maneuverability = loader.loadPositiveDouble(MANEUVERABILITY);
 		targetFriends = loader.loadBoolean(TARGET_FRIENDS, true);
 		targetSelf = loader.loadBoolean(TARGET_SELF, true);
-		// register a single listener for all homing missiles
-		if (listener == null) {
-			listener = new MissileListener();
-			Bukkit.getPluginManager().registerEvents(listener, Flier.getInstance());
-		}
+		proximity = loader.loadPositiveDouble(PROXIMITY, 1.0);
 	}
 
 	@Override
@@ -101,6 +100,36 @@ public class HomingMissile extends DefaultAttack {
 		Vector velocity = player.getLocation().getDirection().clone().multiply(speed);
 		Vector pointer = player.getLocation().getDirection().clone().multiply(player.getVelocity().length() * 3);
 		Location launch = player.getEyeLocation().clone().add(pointer);
+		Attacker attacker = new DefaultAttacker(HomingMissile.this, owner.get().getPlayer(),
+				target, owner.get().getItem());
+		int lifetime = (int) modMan.modifyNumber(LIFETIME, HomingMissile.this.lifetime);
+		if (virtual) {
+			VirtualProjectile projectile = new VirtualProjectile(launch, velocity, attacker, Particle.FLAME,
+					modMan.modifyNumber(PROXIMITY, proximity), lifetime);
+			MissileGuidance.add(target.getGame(), new Guidance(speed, velocity) {
+				@Override
+				public boolean isAlive() {
+					return projectile.isFlying();
+				}
+				@Override
+				public void destroy() {
+					projectile.cancel();
+				}
+				@Override
+				protected Location getLocation() {
+					return projectile.location.clone();
+				}
+				@Override
+				protected int getTicksLived() {
+					return projectile.ticksLived;
+				}
+				@Override
+				protected void setVelocity(Vector velocity) {
+					projectile.velocity = velocity;
+				}
+			});
+			return true;
+		}
 		Projectile missile = (Projectile) launch.getWorld().spawnEntity(launch, modMan.modifyEnum(ENTITY, entity));
 		missile.setVelocity(velocity);
 		missile.setShooter(player);
@@ -108,136 +137,177 @@ public class HomingMissile extends DefaultAttack {
 			missile.setGravity(false);
 		} catch (NoSuchMethodError e) {}
 		missile.setGlowing(true);
-		Attacker.saveAttacker(missile, new DefaultAttacker(HomingMissile.this, owner.get().getPlayer(),
-				target, owner.get().getItem()));
-		new BukkitRunnable() {
+		Attacker.saveAttacker(missile, attacker);
+		MissileGuidance.add(target.getGame(), new Guidance(speed, velocity) {
 			int i = 0;
 			Location lastLoc;
-			Target nearest;
-			boolean foundTarget = false;
-			ImmutableVector vec = null;
-			int lifetime = (int) modMan.modifyNumber(LIFETIME, HomingMissile.this.lifetime);
-			int searchRange = (int) modMan.modifyNumber(SEARCH_RANGE, HomingMissile.this.searchRange);
-			double searchRadius = modMan.modifyNumber(SEARCH_RADIUS, HomingMissile.this.searchRadius);
-			double maneuverability = modMan.modifyNumber(MANEUVERABILITY, HomingMissile.this.maneuverability);
-			int radius = searchRange / 2;
-			int radiusSqr = radius * radius;
-			boolean friendlyFire = HomingMissile.this.targetFriends;
-			boolean suicidal = HomingMissile.this.targetSelf;
 			@Override
-			public void run() {
+			public boolean isAlive() {
 				// stop if the missile does not exist
 				if (missile.isDead() || !missile.isValid() || missile.getTicksLived() >= lifetime) {
-					cancel();
-					missile.remove();
-					return;
+					destroy();
+					return false;
 				}
 				// stop if the missile did not move for 5 ticks
 				if (lastLoc != null && missile.getLocation().distanceSquared(lastLoc) == 0) {
 					i++;
 					if (i > 5) {
-						cancel();
-						missile.remove();
-						return;
+						destroy();
+						return false;
 					}
 				} else {
 					i = 0;
 				}
 				lastLoc = missile.getLocation();
-				// get missile velocity and store it
-				// velocity is held here to avoid corruption
-				if (vec == null) {
-					vec = ImmutableVector.fromVector(missile.getVelocity()).normalize().multiply(speed);
-				}
-				// get the search area
-				ImmutableVector direction = vec.normalize();
-				Location searchCenter = missile.getLocation().clone().add(direction.multiply(radius).toVector());
-				// find a target in the area
-				Target missileTarget = null;
-				double distance = radiusSqr;
-				for (Target t : target.getGame().getTargets().values()) {
-					// skip the player if he shouldn't be targeted
-					Attitude attitude = t.getGame().getAttitude(t, owner.get().getPlayer());
-					if (attitude == Attitude.NEUTRAL) {
-						continue;
-					}
-					if (!friendlyFire && attitude == Attitude.FRIENDLY) {
-						continue;
-					}
-					if (!suicidal && owner.get().getPlayer().equals(t)) {
-						continue;
-					}
-					// get the nearest player
-					double d = t.getLocation().distanceSquared(searchCenter);
-					if (d < distance) {
-						missileTarget = t;
-						distance = d;
-						// TODO decoys will be trivial to implement if it always tracked
-						// nearest target, so this should probably be removed...
-						// 
-						// if the missile tracked someone previously and he's still in the area,
-						// it should track him even if he's not the closest one
-						if (nearest != null && t.equals(nearest)) {
-							break;
-						}
-					}
-				}
-				nearest = missileTarget;
-				ImmutableVector newVec;
-				if (nearest != null) {
-					// target found, fly towards it
-					foundTarget = true;
-					Location loc = nearest.getLocation();
-					Vector v = loc.subtract(missile.getLocation()).toVector().add(nearest.getVelocity());
-					ImmutableVector aim = ImmutableVector.fromVector(v).normalize().multiply(maneuverability);
-					newVec = direction.add(aim).normalize().multiply(speed);
-					if (nearest instanceof InGamePlayer) {
-						int j = (int) (4.0 * nearest.getLocation().distance(missile.getLocation()) / searchRange);
-						j = j <= 0 ? 1 : j;
-						if (missile.getTicksLived() % j == 0) {
-							Vector soundLoc = missile.getLocation().subtract(
-									nearest.getLocation()).toVector().normalize().multiply(10);
-							((InGamePlayer) nearest).getPlayer().playSound(
-									nearest.getLocation().add(soundLoc),
-									Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1, 1);
-						}
-					}
-				} else if (foundTarget) {
-					// target was lost, fly in circles
-					ImmutableVector d = new ImmutableVector(direction.getZ(), -direction.getY(), -direction.getX()).multiply(searchRadius);
-					newVec = direction.add(d).normalize().multiply(speed);
-				} else {
-					// no target yet, fly straight
-					newVec = direction.multiply(speed);
-				}
-				// store new velocity to avoid corruption
-				vec = newVec;
-				missile.setVelocity(newVec.toVector());
+				return true;
+			}
+			@Override
+			public void destroy() {
+				Attacker.removeAttacker(missile);
+				missile.remove();
+			}
+			@Override
+			protected Location getLocation() {
+				return missile.getLocation();
+			}
+			@Override
+			protected int getTicksLived() {
+				return missile.getTicksLived();
+			}
+			@Override
+			protected void setVelocity(Vector velocity) {
+				missile.setVelocity(velocity);
 				// spawn fire particle at rocket's location
-				missile.getLocation().getWorld().spawnParticle(Particle.FLAME, missile.getLocation(), 0);
+				World world = missile.getWorld();
+				if (EmissionBudget.particle(target.getGame(), target, Priority.TRAIL, world.getPlayers().size())) {
+					world.spawnParticle(Particle.FLAME, missile.getLocation(), 0);
+				}
 			}
-		}.runTaskTimer(Flier.getInstance(), 1, 1);
+		});
 		return true;
 	}
 	
-	public class MissileListener implements Listener {
-			
-		@EventHandler(priority=EventPriority.LOW)
-		public void onHit(EntityDamageByEntityEvent event) {
-			if (event.isCancelled()) {
-				return;
+	/**
+	 * Finds targets for a single missile and steers it towards them.
+	 */
+	private abstract class Guidance implements MissileGuidance.Missile {
+		
+		private final double speed;
+		private final int searchRange = (int) modMan.modifyNumber(SEARCH_RANGE, HomingMissile.this.searchRange);
+		private final double searchRadius = modMan.modifyNumber(SEARCH_RADIUS, HomingMissile.this.searchRadius);
+		private final double maneuverability = modMan.modifyNumber(MANEUVERABILITY, HomingMissile.this.maneuverability);
+		private final int radius = searchRange / 2;
+		private final int radiusSqr = radius * radius;
+		private final boolean friendlyFire = HomingMissile.this.targetFriends;
+		private final boolean suicidal = HomingMissile.this.targetSelf;
+		private Target nearest;
+		private boolean foundTarget = false;
+		private int nextSearch = 0;
+		// velocity is held here to avoid corruption
+		private ImmutableVector vec;
+		
+		private Guidance(double speed, Vector velocity) {
+			this.speed = speed;
+			this.vec = ImmutableVector.fromVector(velocity).normalize().multiply(speed);
+		}
+		
+		/**
+		 * @return current location of the missile
+		 */
+		protected abstract Location getLocation();
+		
+		/**
+		 * @return amount of ticks since the launch
+		 */
+		protected abstract int getTicksLived();
+		
+		/**
+		 * Sets the new velocity of the missile.
+		 */
+		protected abstract void setVelocity(Vector velocity);
+		
+		@Override
+		public void update(MissileGuidance guidance) {
+			Location location = getLocation();
+			Map<Target, Location> targets = guidance.getTargets();
+			ImmutableVector direction = vec.normalize();
+			// forget the target if it's no longer in the game
+			Location targetLoc = nearest == null ? null : targets.get(nearest);
+			if (targetLoc == null) {
+				nearest = null;
+			}
+			// search for targets less often if there's nothing nearby
+			if (guidance.getTick() >= nextSearch) {
+				nearest = search(targets, location.clone().add(direction.multiply(radius).toVector()));
+				targetLoc = nearest == null ? null : targets.get(nearest);
+				boolean far = nearest == null || targetLoc.distanceSquared(location) > searchRange * searchRange;
+				nextSearch = guidance.getTick() + (far ? FAR_SEARCH_TICKS : 1);
 			}
-			Attacker attacker = Attacker.getAttacker(event.getDamager());
-			if (attacker != null && attacker.getDamager() instanceof HomingMissile) {
-				event.setCancelled(true);
-				event.getDamager().remove();
-				Target target = attacker.getCreator().getGame().getTargets().get(event.getEntity().getUniqueId());
-				if (target != null && target.isTargetable()) {
-					attacker.getCreator().getGame().handleHit(target, attacker);
+			ImmutableVector newVec;
+			if (nearest != null) {
+				// target found, fly towards it
+				foundTarget = true;
+				Vector v = targetLoc.clone().subtract(location).toVector().add(nearest.getVelocity());
+				ImmutableVector aim = ImmutableVector.fromVector(v).normalize().multiply(maneuverability);
+				newVec = direction.add(aim).normalize().multiply(speed);
+				if (nearest instanceof InGamePlayer) {
+					double distance = targetLoc.distance(location);
+					int j = (int) (4.0 * distance / searchRange);
+					j = j <= 0 ? 1 : j;
+					if (getTicksLived() % j == 0) {
+						guidance.warn((InGamePlayer) nearest, location, distance);
+					}
 				}
+			} else if (foundTarget) {
+				// target was lost, fly in circles
+				ImmutableVector d = new ImmutableVector(direction.getZ(), -direction.getY(), -direction.getX()).multiply(searchRadius);
+				newVec = direction.add(d).normalize().multiply(speed);
+			} else {
+				// no target yet, fly straight
+				newVec = direction.multiply(speed);
 			}
+			// store new velocity to avoid corruption
+			vec = newVec;
+			setVelocity(newVec.toVector());
 		}
-
+		
+		/**
+		 * Finds the target closest to the search center.
+		 */
+		private Target search(Map<Target, Location> targets, Location searchCenter) {
+			Target missileTarget = null;
+			double distance = radiusSqr;
+			for (Entry<Target, Location> entry : targets.entrySet()) {
+				Target t = entry.getKey();
+				// skip the player if he shouldn't be targeted
+				Attitude attitude = t.getGame().getAttitude(t, owner.get().getPlayer());
+				if (attitude == Attitude.NEUTRAL) {
+					continue;
+				}
+				if (!friendlyFire && attitude == Attitude.FRIENDLY) {
+					continue;
+				}
+				if (!suicidal && owner.get().getPlayer().equals(t)) {
+					continue;
+				}
+				// get the nearest player
+				double d = entry.getValue().distanceSquared(searchCenter);
+				if (d < distance) {
+					missileTarget = t;
+					distance = d;
+					// TODO decoys will be trivial to implement if it always tracked
+					// nearest target, so this should probably be removed...
+					// 
+					// if the missile tracked someone previously and he's still in the area,
+					// it should track him even if he's not the closest one
+					if (nearest != null && t.equals(nearest)) {
+						break;
+					}
+				}
+			}
+			return missileTarget;
+		}
+		
 	}
 
 }
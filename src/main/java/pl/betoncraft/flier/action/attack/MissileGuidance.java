@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.action.attack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.bukkit.Location;
+import org.bukkit.Sound;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
+
+import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+import pl.betoncraft.flier.api.core.Target;
+import pl.betoncraft.flier.util.EmissionBudget;
+import pl.betoncraft.flier.util.EmissionBudget.Priority;
+
+/**
+ * Updates all guided missiles in a game in a single pass each tick. Target
+ * locations are read once per tick and shared by all missiles, and lock
+ * warnings are coalesced into one sound per player.
+ *
+ * @author Jakub Sapalski
+ */
+class MissileGuidance extends BukkitRunnable {
+
+	private static final Map<Game, MissileGuidance> systems = new HashMap<>();
+
+	private final Game game;
+	private final int gameNumber;
+	private final List<Missile> missiles = new ArrayList<>();
+	private final Map<Target, Location> targets = new LinkedHashMap<>();
+	private final Map<InGamePlayer, Location> warnings = new HashMap<>();
+	private final Map<InGamePlayer, Double> warningDistances = new HashMap<>();
+	private int tick = 0;
+
+	private MissileGuidance(Game game) {
+		this.game = game;
+		this.gameNumber = game.getUniqueNumber();
+		runTaskTimer(Flier.getInstance(), 1, 1);
+	}
+
+	/**
+	 * Adds the missile to the guidance system of the game.
+	 * 
+	 * @param game
+	 *            game in which the missile was launched
+	 * @param missile
+	 *            the missile
+	 */
+	static void add(Game game, Missile missile) {
+		MissileGuidance system = systems.get(game);
+		if (system == null || system.gameNumber != game.getUniqueNumber()) {
+			if (system != null) {
+				system.cancel();
+			}
+			system = new MissileGuidance(game);
+			systems.put(game, system);
+		}
+		system.missiles.add(missile);
+	}
+
+	@Override
+	public void run() {
+		// the game has ended or was reused in the meantime
+		if (!game.isRunning() || game.getUniqueNumber() != gameNumber) {
+			for (Missile missile : missiles) {
+				missile.destroy();
+			}
+			missiles.clear();
+		}
+		if (missiles.isEmpty()) {
+			cancel();
+			systems.remove(game, this);
+			return;
+		}
+		tick++;
+		targets.clear();
+		for (Target target : game.getTargets().values()) {
+			targets.put(target, target.getLocation());
+		}
+		for (Iterator<Missile> i = missiles.iterator(); i.hasNext();) {
+			Missile missile = i.next();
+			if (!missile.isAlive()) {
+				i.remove();
+				continue;
+			}
+			missile.update(this);
+		}
+		for (Entry<InGamePlayer, Location> entry : warnings.entrySet()) {
+			Location loc = targets.get(entry.getKey());
+			if (loc == null || !EmissionBudget.sound(game, null, Priority.FEEDBACK, 1)) {
+				continue;
+			}
+			Vector soundLoc = entry.getValue().subtract(loc).toVector().normalize().multiply(10);
+			entry.getKey().getPlayer().playSound(loc.clone().add(soundLoc), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1, 1);
+		}
+		warnings.clear();
+		warningDistances.clear();
+	}
+
+	/**
+	 * @return the amount of ticks this system is running
+	 */
+	int getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return all targets in the game with their locations in this tick
+	 */
+	Map<Target, Location> getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Warns the player about a missile locked on them. Only the closest
+	 * missile is heard in each tick.
+	 * 
+	 * @param player
+	 *            targeted player
+	 * @param missile
+	 *            location of the missile
+	 * @param distance
+	 *            distance between the missile and the player
+	 */
+	void warn(InGamePlayer player, Location missile, double distance) {
+		Double closest = warningDistances.get(player);
+		if (closest == null || distance < closest) {
+			warningDistances.put(player, distance);
+			warnings.put(player, missile);
+		}
+	}
+
+	/**
+	 * A single missile controlled by the guidance system.
+	 */
+	interface Missile {
+
+		/**
+		 * @return whether the missile is still flying; it's forgotten once this
+		 *         returns false
+		 */
+		boolean isAlive();
+
+		/**
+		 * Finds the target and steers the missile.
+		 * 
+		 * @param guidance
+		 *            the guidance system with current tick's data
+		 */
+		void update(MissileGuidance guidance);
+
+		/**
+		 * Removes the missile, because its game has ended.
+		 */
+		void destroy();
+
+	}
+
+}
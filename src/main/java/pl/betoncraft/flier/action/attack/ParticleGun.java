@@ -44,6 +44,7 @@ import pl.betoncraft.flier.api.core.Target;
 import pl.betoncraft.flier.api.core.UsableItem;
 import pl.betoncraft.flier.core.DefaultAttacker;
 import pl.betoncraft.flier.event.FlierProjectileLaunchEvent;
+import pl.betoncraft.flier.util.TrailRenderer;
 
 /**
  * Burst shooting weapon with unguided particle-based bullets.
@@ -66,6 +67,7 @@ public class ParticleGun extends DefaultAttack {
 	private static final String EXTRA = "speed";
 	private static final String DENSITY = "density";
 	private static final String RANGE = "range";
+	private static final String VIEW_DISTANCE = "view_distance";
 
 	private final Flier flier;
 	private final Random random;
@@ -75,14 +77,7 @@ public class ParticleGun extends DefaultAttack {
 	private final double projectileSpeed;
 	private final double proximity;
 	private final double range;
-
-	private final Particle particle;
-	private final int amount;
-	private final double offsetX;
-	private final double offsetY;
-	private final double offsetZ;
-	private final double extra;
-	private final double density;
+	private final TrailRenderer trail;
 	
 	public ParticleGun(ConfigurationSection section, Optional<Owner> owner) throws LoadingException {
 		super(section, owner);
@@ -93,16 +88,18 @@ public class ParticleGun extends DefaultAttack {
 		spread = loader.loadNonNegativeDouble(SPREAD, 0.0);
 		projectileSpeed = loader.loadPositiveDouble(PROJECTILE_SPEED);
 		proximity = loader.loadPositiveDouble(PROXIMITY, 1.0);
+		range = loader.loadPositiveDouble(RANGE, 256.0);
 		// particle settings
-		particle = loader.loadEnum(PARTICLE, Particle.class);
-		amount = loader.loadNonNegativeInt(AMOUNT, 0);
+		Particle particle = loader.loadEnum(PARTICLE, Particle.class);
+		int amount = loader.loadNonNegativeInt(AMOUNT, 0);
 		double offset = loader.loadNonNegativeDouble(OFFSET, 0.0);
-		offsetX = loader.loadNonNegativeDouble(OFFSET_X, offset);
-		offsetY = loader.loadNonNegativeDouble(OFFSET_Y, offset);
-		offsetZ = loader.loadNonNegativeDouble(OFFSET_Z, offset);
-		extra = loader.loadNonNegativeDouble(EXTRA, 0.0);
-		density = loader.loadPositiveDouble(DENSITY, 0.5);
-		range = loader.loadPositiveDouble(RANGE, 256.0);
+		double offsetX = loader.loadNonNegativeDouble(OFFSET_X, offset);
+		double offsetY = loader.loadNonNegativeDouble(OFFSET_Y, offset);
+		double offsetZ = loader.loadNonNegativeDouble(OFFSET_Z, offset);
+		double extra = loader.loadNonNegativeDouble(EXTRA, 0.0);
+		double density = loader.loadPositiveDouble(DENSITY, 0.5);
+		double viewDistance = loader.loadPositiveDouble(VIEW_DISTANCE, 32.0);
+		trail = new TrailRenderer(particle, amount, offsetX, offsetY, offsetZ, extra, density, viewDistance);
 	}
 	
 	@Override
@@ -262,17 +259,13 @@ public class ParticleGun extends DefaultAttack {
 			}
 			
 			// spawn particles 
-			int step = (int) (currentSpeed * density);
-			currentVel.multiply(1.0 / step);
-			for (int i = 0; i < step; i++) {
-				// this moves start so it becomes end,
-				// and can still be used on the next tick
-				start.add(currentVel);
-				world.spawnParticle(particle, start, amount, offsetX, offsetY, offsetZ, extra);
-			}
+			trail.renderSegment(creator.getGame(), creator, start, currentVel);
+			// this moves start so it becomes end,
+			// and can still be used on the next tick
+			start.add(currentVel);
 			
 			if (early) {
-				world.spawnParticle(particle, start, 100, 0, 0, 0, 0.25);
+				trail.renderBurst(creator.getGame(), creator, start, 100, 0.25);
 			}
 			
 			// decrease range and quit if it's out
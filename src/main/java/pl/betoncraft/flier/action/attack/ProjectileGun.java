@@ -24,21 +24,19 @@
 package pl.betoncraft.flier.action.attack;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Particle;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Explosive;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
-import org.bukkit.event.Listener;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
@@ -47,12 +45,12 @@ import pl.betoncraft.flier.api.core.Attacker;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
-import pl.betoncraft.flier.api.core.Target;
 import pl.betoncraft.flier.core.DefaultAttacker;
 import pl.betoncraft.flier.event.FlierProjectileLaunchEvent;
 
 /**
- * Burst shooting weapon with unguided projectile-based bullets.
+ * Burst shooting weapon with unguided projectile-based bullets. The bullets
+ * can also be virtual, simulated without any entities.
  *
  * @author Jakub Sapalski
  */
@@ -62,10 +60,14 @@ public class ProjectileGun extends DefaultAttack {
 	private static final String BURST_AMOUNT = "burst_amount";
 	private static final String BURST_TICKS = "burst_ticks";
 	private static final String PROJECTILE_SPEED = "projectile_speed";
+	private static final String VIRTUAL = "virtual";
+	private static final String PARTICLE = "particle";
+	private static final String PROXIMITY = "proximity";
 	
-	private static ProjectileListener listener;
-
+	private final boolean virtual;
 	private final EntityType entity;
+	private final Particle particle;
+	private final double proximity;
 	private final int burstAmount;
 	private final int burstTicks;
 	private final double projectileSpeed;
@@ -73,15 +75,13 @@ public class ProjectileGun extends DefaultAttack {
 	
 	public ProjectileGun(ConfigurationSection section, Optional<Owner> owner) throws LoadingException {
 		super(section, owner);
-		entity = loader.loadEnum(ENTITY, EntityType.class);
+		virtual = loader.loadBoolean(VIRTUAL, false);
+		entity = virtual ? null : loader.loadEnum(ENTITY, EntityType.class);
+		particle = loader.loadEnum(PARTICLE, Particle.CRIT, Particle.class);
+		proximity = loader.loadPositiveDouble(PROXIMITY, 1.0);
 		burstAmount = loader.loadPositiveInt(BURST_AMOUNT);
 		burstTicks = loader.loadPositiveInt(BURST_TICKS);
 		projectileSpeed = loader.loadPositiveDouble(PROJECTILE_SPEED);
-		// register a single listener for all ProjectileGuns
-		if (listener == null) {
-			listener = new ProjectileListener();
-			Bukkit.getPluginManager().registerEvents(listener, Flier.getInstance());
-		}
 	}
 	
 	@Override
@@ -92,13 +92,27 @@ public class ProjectileGun extends DefaultAttack {
 		new BukkitRunnable() {
 			int counter = burstAmount;
 			double projectileSpeed = modMan.modifyNumber(PROJECTILE_SPEED, ProjectileGun.this.projectileSpeed);
-			EntityType entity = modMan.modifyEnum(ENTITY, ProjectileGun.this.entity);
+			EntityType entity = virtual ? null : modMan.modifyEnum(ENTITY, ProjectileGun.this.entity);
+			Particle particle = modMan.modifyEnum(PARTICLE, ProjectileGun.this.particle);
+			double proximity = modMan.modifyNumber(PROXIMITY, ProjectileGun.this.proximity);
 			@Override
 			public void run() {
 				Vector velocity = player.getLocation().getDirection().clone().multiply(projectileSpeed);
 				Vector pointer = player.getLocation().getDirection().clone().multiply(player.getVelocity().length() * 3);
 				Location launch = (player.isGliding() ? player.getLocation() : player.getEyeLocation())
 						.clone().add(pointer);
+				Attacker attacker = new DefaultAttacker(ProjectileGun.this, owner.get().getPlayer(),
+						target, owner.get().getItem());
+				counter --;
+				if (counter <= 0) {
+					cancel();
+				}
+				// call event for each projectile launched
+				Bukkit.getPluginManager().callEvent(new FlierProjectileLaunchEvent(target, ProjectileGun.this));
+				if (virtual) {
+					new VirtualProjectile(launch, velocity, attacker, particle, proximity, range);
+					return;
+				}
 				Projectile projectile = (Projectile) launch.getWorld().spawnEntity(launch, entity);
 				projectile.setVelocity(velocity);
 				projectile.setShooter(player);
@@ -111,24 +125,25 @@ public class ProjectileGun extends DefaultAttack {
 					explosive.setIsIncendiary(false);
 					explosive.setYield(0);
 				}
-				Attacker.saveAttacker(projectile, new DefaultAttacker(ProjectileGun.this, owner.get().getPlayer(),
-						target, owner.get().getItem()));
+				Attacker.saveAttacker(projectile, attacker);
 				projectiles.put(projectile, velocity);
-				counter --;
-				if (counter <= 0) {
-					cancel();
-				}
-				// call event for each projectile launched
-				Bukkit.getPluginManager().callEvent(new FlierProjectileLaunchEvent(target, ProjectileGun.this));
 			}
 		}.runTaskTimer(Flier.getInstance(), 0, (int) modMan.modifyNumber(BURST_TICKS, burstTicks));
+		if (virtual) {
+			return true;
+		}
 		new BukkitRunnable() {
 			int life = 0;
 			@Override
 			public void run() {
 				// update projectile path to prevent them from flying around
-				for (Entry<Projectile, Vector> entry : projectiles.entrySet()) {
-					entry.getKey().setVelocity(entry.getValue());
+				for (Iterator<Entry<Projectile, Vector>> i = projectiles.entrySet().iterator(); i.hasNext();) {
+					Entry<Projectile, Vector> entry = i.next();
+					if (entry.getKey().isValid()) {
+						entry.getKey().setVelocity(entry.getValue());
+					} else {
+						i.remove();
+					}
 				}
 				// cancel after the range has passed
 				if (++life >= range) {
@@ -138,25 +153,5 @@ public class ProjectileGun extends DefaultAttack {
 		}.runTaskTimer(Flier.getInstance(), 0, 1);
 		return true;
 	}
-	
-	public class ProjectileListener implements Listener {
-		
-		@EventHandler(priority=EventPriority.LOW)
-		public void onHit(EntityDamageByEntityEvent event) {
-			if (event.isCancelled()) {
-				return;
-			}
-			Attacker attacker = Attacker.getAttacker(event.getDamager());
-			if (attacker != null && attacker.getDamager() instanceof ProjectileGun) {
-				event.setCancelled(true);
-				event.getDamager().remove();
-				Target target = attacker.getCreator().getGame().getTargets().get(event.getEntity().getUniqueId());
-				if (target != null && target.isTargetable()) {
-					attacker.getCreator().getGame().handleHit(target, attacker);
-				}
-			}
-		}
-		
-	}
 
 }
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.action.attack;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.BlockIterator;
+import org.bukkit.util.Vector;
+
+import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.Attacker;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+import pl.betoncraft.flier.api.core.Target;
+import pl.betoncraft.flier.util.TrailRenderer;
+
+/**
+ * Projectile simulated without any server entity. Each tick it moves by its
+ * velocity, stops at solid blocks and hits the closest target near its path.
+ * It's rendered with particles only, one per block of the path.
+ *
+ * @author Jakub Sapalski
+ */
+class VirtualProjectile extends BukkitRunnable {
+
+	// the creator can be hit only after the projectile flies away
+	private static final int ARMING_TICKS = 5;
+	private static final double VIEW_DISTANCE = 32;
+
+	protected final Location location;
+	protected Vector velocity;
+	protected int ticksLived = 0;
+
+	private final Game game;
+	private final int gameNumber;
+	private final World world;
+	private final Attacker attacker;
+	private final TrailRenderer trail;
+	private final double proximity;
+	private final int lifetime;
+	private boolean flying = true;
+
+	/**
+	 * Creates and launches the projectile.
+	 * 
+	 * @param launch
+	 *            starting location
+	 * @param velocity
+	 *            starting velocity, in blocks per tick
+	 * @param attacker
+	 *            Attacker passed to the game when a target is hit
+	 * @param particle
+	 *            particle displayed along the path
+	 * @param proximity
+	 *            distance from the path at which targets are hit
+	 * @param lifetime
+	 *            amount of ticks after which the projectile disappears
+	 */
+	VirtualProjectile(Location launch, Vector velocity, Attacker attacker, Particle particle, double proximity,
+			int lifetime) {
+		this.location = launch.clone();
+		this.velocity = velocity.clone();
+		this.game = attacker.getCreator().getGame();
+		this.gameNumber = game.getUniqueNumber();
+		this.world = launch.getWorld();
+		this.attacker = attacker;
+		this.trail = new TrailRenderer(particle, 0, 0, 0, 0, 0, 1, VIEW_DISTANCE);
+		this.proximity = proximity * proximity;
+		this.lifetime = lifetime;
+		runTaskTimer(Flier.getInstance(), 0, 1);
+	}
+
+	/**
+	 * @return whether the projectile is still flying
+	 */
+	boolean isFlying() {
+		return flying;
+	}
+
+	@Override
+	public void run() {
+		// the game has ended or was reused in the meantime
+		if (!game.isRunning() || game.getUniqueNumber() != gameNumber || ticksLived++ >= lifetime) {
+			stop();
+			return;
+		}
+		double length = velocity.length();
+		if (length == 0) {
+			return;
+		}
+		Location end = location.clone().add(velocity);
+		// don't load chunks from file to check blocks
+		if (!world.isChunkLoaded(end.getBlockX() >> 4, end.getBlockZ() >> 4)) {
+			stop();
+			return;
+		}
+		Vector start = location.toVector();
+		Vector direction = velocity.clone().multiply(1 / length);
+		// find the first solid block on the path
+		double reach = length;
+		boolean blocked = false;
+		BlockIterator tracer = new BlockIterator(world, start, direction, 0, (int) Math.ceil(length));
+		while (tracer.hasNext()) {
+			Block block = tracer.next();
+			if (block.getType().isSolid()) {
+				Vector center = block.getLocation().add(0.5, 0.5, 0.5).toVector();
+				reach = Math.max(0, Math.min(reach, center.subtract(start).dot(direction) - 0.5));
+				blocked = true;
+				break;
+			}
+		}
+		// find the closest target near the path
+		Target hit = null;
+		for (Target target : game.getTargets().values()) {
+			if (!target.isTargetable() || (ticksLived <= ARMING_TICKS && target.equals(attacker.getCreator()))) {
+				continue;
+			}
+			// players are checked along their body, from the feet to the eyes
+			Vector feet = target.getLocation().toVector();
+			Vector body = target instanceof InGamePlayer
+					? ((InGamePlayer) target).getPlayer().getEyeLocation().toVector().subtract(feet)
+					: new Vector();
+			double along = closest(start.clone().subtract(feet), direction, reach, body);
+			if (along >= 0 && (hit == null || along < reach)) {
+				hit = target;
+				reach = along;
+			}
+		}
+		// render the path
+		Vector path = direction.multiply(reach);
+		trail.renderSegment(game, attacker.getCreator(), location, path);
+		location.add(path);
+		if (hit != null) {
+			stop();
+			game.handleHit(hit, attacker);
+		} else if (blocked) {
+			stop();
+		}
+	}
+
+	/**
+	 * Finds the closest approach between the path and the body segment, both
+	 * relative to the bottom of the body.
+	 * 
+	 * @return the distance along the path or -1 if the body is not in
+	 *         proximity
+	 */
+	private double closest(Vector offset, Vector direction, double reach, Vector body) {
+		double b = direction.dot(body);
+		double c = body.lengthSquared();
+		double d = direction.dot(offset);
+		double along;
+		double height = 0;
+		if (c < 1e-9) {
+			along = clamp(-d, reach);
+		} else {
+			double e = body.dot(offset);
+			double denominator = c - b * b;
+			along = denominator > 1e-9 ? clamp((b * e - c * d) / denominator, reach) : 0;
+			height = (b * along + e) / c;
+			if (height < 0) {
+				height = 0;
+				along = clamp(-d, reach);
+			} else if (height > 1) {
+				height = 1;
+				along = clamp(b - d, reach);
+			}
+		}
+		double x = offset.getX() + direction.getX() * along - body.getX() * height;
+		double y = offset.getY() + direction.getY() * along - body.getY() * height;
+		double z = offset.getZ() + direction.getZ() * along - body.getZ() * height;
+		return x * x + y * y + z * z < proximity ? along : -1;
+	}
+
+	private static double clamp(double value, double max) {
+		return value < 0 ? 0 : value > max ? max : value;
+	}
+
+	private void stop() {
+		flying = false;
+		cancel();
+	}
+
+}
@@ -94,4 +94,9 @@ public class AmmoActivator extends DefaultActivator {
 		return false;
 	}
 
+	@Override
+	public Dependency getDependency() {
+		return Dependency.AMMO;
+	}
+
 }
@@ -51,4 +51,9 @@ public class HoldingThisActivator extends DefaultActivator {
 		return player.isHolding(owner.get().getItem());
 	}
 
+	@Override
+	public Dependency getDependency() {
+		return Dependency.HELD_ITEM;
+	}
+
 }
@@ -30,6 +30,7 @@ import org.bukkit.configuration.ConfigurationSection;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
+import pl.betoncraft.flier.util.Triggers;
 
 /**
  * Activates when the player has specified trigger on this tick.
@@ -38,16 +39,21 @@ import pl.betoncraft.flier.api.core.Owner;
  */
 public class TriggerActivator extends DefaultActivator {
 	
-	private String trigger;
+	private final long trigger;
 
 	public TriggerActivator(ConfigurationSection section, Optional<Owner> owner) throws LoadingException {
 		super(section, owner);
-		trigger = loader.loadString("trigger");
+		trigger = Triggers.register(loader.loadString("trigger"));
 	}
 
 	@Override
 	public boolean isActive(InGamePlayer player, InGamePlayer source) {
-		return player.getTriggers().contains(trigger);
+		return (player.getTriggers() & trigger) != 0;
+	}
+
+	@Override
+	public Dependency getDependency() {
+		return Dependency.TRIGGER;
 	}
 
 }
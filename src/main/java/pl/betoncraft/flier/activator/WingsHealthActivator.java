@@ -73,4 +73,9 @@ public class WingsHealthActivator extends DefaultActivator {
 		return false;
 	}
 
+	@Override
+	public Dependency getDependency() {
+		return Dependency.WINGS_HEALTH;
+	}
+
 }
@@ -26,6 +26,7 @@ package pl.betoncraft.flier.api;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
@@ -72,9 +73,28 @@ public interface Flier extends Plugin {
 	}
 
 	/**
-	 * Reloads the plugin.
+	 * Reloads the whole plugin, restarting all lobbies.
+	 * 
+	 * @return the future completed on the main thread, with true if the
+	 *         plugin was reloaded and false if there was an error
+	 */
+	public default CompletableFuture<Boolean> reload() {
+		return reload(false);
+	}
+
+	/**
+	 * Reloads the plugin. Configuration files are parsed and validated in the
+	 * background and the new content replaces the old one on the main thread,
+	 * only if everything loaded correctly.
+	 * 
+	 * @param incremental
+	 *            whether only changed lobbies should be restarted; running
+	 *            games in other lobbies are left untouched and use the new
+	 *            content when they load it next time (for example on respawn)
+	 * @return the future completed on the main thread, with true if the
+	 *         plugin was reloaded and false if there was an error
 	 */
-	public void reload();
+	public CompletableFuture<Boolean> reload(boolean incremental);
 
 	/**
 	 * @return the instance of ConfigManager
@@ -107,6 +127,28 @@ public interface Flier extends Plugin {
 	 * @param player player who has left a Game
 	 */
 	public void playerLeavesGame(InGamePlayer player);
+	
+	/**
+	 * Notifies the plugin that the player has joined a Lobby. It will update the index of players.
+	 * 
+	 * @param player UUID of the player who has joined a Lobby
+	 * @param lobby the Lobby
+	 */
+	public void playerJoinsLobby(UUID player, Lobby lobby);
+	
+	/**
+	 * Notifies the plugin that the player has left a Lobby. It will update the index of players.
+	 * 
+	 * @param player UUID of the player who has left a Lobby
+	 * @param lobby the Lobby
+	 */
+	public void playerLeavesLobby(UUID player, Lobby lobby);
+	
+	/**
+	 * @param player UUID of the player
+	 * @return the Lobby in which the player currently is, or null if he's not in any Lobby
+	 */
+	public Lobby getPlayerLobby(UUID player);
 
 	/**
 	 * @return an immutable view of the map containing players who are currently
@@ -174,6 +216,23 @@ public interface Flier extends Plugin {
 	 */
 	public Game getGame(String id, Lobby lobby) throws LoadingException, NoArenaException;
 
+	/**
+	 * Checks whether a Game with specified ID from <i>games.yml</i> file could
+	 * be created in the Lobby, without actually creating it. Game types
+	 * registered without a validator are checked by creating the Game and
+	 * stopping it right away.
+	 * 
+	 * @param id
+	 *            ID of the Game
+	 * @param lobby
+	 *            Lobby from which this Game would originate
+	 * @throws LoadingException
+	 *             when the Game could not be created due to an error
+	 * @throws NoArenaException
+	 *             when the Lobby has no viable Arenas for this Game
+	 */
+	public void validateGame(String id, Lobby lobby) throws LoadingException, NoArenaException;
+
 	/**
 	 * Creates a new instance of an Action, using data with specified ID from
 	 * <i>actions.yml</i> file.
@@ -323,6 +382,20 @@ public interface Flier extends Plugin {
 	 */
 	public void registerGame(String name, GameFactory factory);
 
+	/**
+	 * Registers a new Game type with specified name. The factory will be used
+	 * to obtain copies of the Game and the validator to check the settings
+	 * without creating a Game.
+	 * 
+	 * @param name
+	 *            name of the type
+	 * @param factory
+	 *            factory which creates instances of that type
+	 * @param validator
+	 *            validator which checks the settings of that type
+	 */
+	public void registerGame(String name, GameFactory factory, GameValidator validator);
+
 	/**
 	 * Registers a new Bonus type with specified name. The factory will be used
 	 * to obtain copies of the Bonus.
@@ -456,6 +529,15 @@ public interface Flier extends Plugin {
 		public Game get(ConfigurationSection settings, Lobby lobby) throws LoadingException, NoArenaException;
 	}
 
+	/**
+	 * GameValidator is used to check the settings of the Game type the same
+	 * way its GameFactory would, but without claiming Arenas, registering
+	 * listeners or starting any tasks.
+	 */
+	public interface GameValidator {
+		public void validate(ConfigurationSection settings, Lobby lobby) throws LoadingException, NoArenaException;
+	}
+
 	/**
 	 * EngineFactory is used to create copies of the Engine type out of
 	 * ConfigurationSections.
@@ -35,6 +35,34 @@ import pl.betoncraft.flier.api.core.Owned;
  */
 public interface Activator extends Named, Owned {
 
+	/**
+	 * Describes what can change the result of an Activator. A Usage which
+	 * failed on an Activator is not checked again until its dependency
+	 * changes. Dependencies are declared from the cheapest to check.
+	 */
+	public enum Dependency {
+		/**
+		 * The result changes only when the player receives a trigger.
+		 */
+		TRIGGER,
+		/**
+		 * The result changes only when the ammo of the item changes.
+		 */
+		AMMO,
+		/**
+		 * The result changes only when the health of player's wings changes.
+		 */
+		WINGS_HEALTH,
+		/**
+		 * The result changes only when the item held by the player changes.
+		 */
+		HELD_ITEM,
+		/**
+		 * The result can change at any time, so it's checked every tick.
+		 */
+		ANY
+	}
+
 	/**
 	 * @param player
 	 *            the player to check
@@ -44,6 +72,13 @@ public interface Activator extends Named, Owned {
 	 * @return whenever the Activator is active for this player
 	 */
 	public boolean isActive(InGamePlayer player, InGamePlayer source);
+
+	/**
+	 * @return what can change the result of this Activator
+	 */
+	public default Dependency getDependency() {
+		return Dependency.ANY;
+	}
 	
 	/**
 	 * Applies passed modification to this Activator.
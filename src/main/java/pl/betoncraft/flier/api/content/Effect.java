@@ -53,6 +53,33 @@ public interface Effect extends Named {
 	 */
 	public void fire(Optional<InGamePlayer> player);
 
+	/**
+	 * Fire an effect once for several invocations merged within a single
+	 * tick. By default the effect fires just once.
+	 * 
+	 * @param player
+	 *            the optional player for whom the Effect will fire
+	 * @param times
+	 *            the amount of merged invocations
+	 */
+	public default void fire(Optional<InGamePlayer> player, int times) {
+		fire(player);
+	}
+
+	/**
+	 * Invocations of this Effect with equal keys are merged if they happen in
+	 * the same tick. The key usually describes the location and receivers of
+	 * the effect.
+	 * 
+	 * @param player
+	 *            the optional player for whom the Effect would fire
+	 * @return the key used for merging or null if this invocation should fire
+	 *         immediately
+	 */
+	public default Object getMergeKey(Optional<InGamePlayer> player) {
+		return null;
+	}
+
 	/**
 	 * @return the list of Matchers to match against a MatchingEvent
 	 */
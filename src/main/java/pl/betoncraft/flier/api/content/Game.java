@@ -38,6 +38,7 @@ import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.Named;
 import pl.betoncraft.flier.api.core.Target;
 import pl.betoncraft.flier.event.FlierGameEndEvent.GameEndCause;
+import pl.betoncraft.flier.util.Heightmap;
 
 /**
  * Represents a game.
@@ -130,6 +131,16 @@ public interface Game extends Named {
 	 */
 	public void stop(GameEndCause cause);
 
+	/**
+	 * Resets the stopped Game to the state it had right after it was created
+	 * and opens it again, so the Lobby can reuse it for the next match instead
+	 * of creating a new one.
+	 *
+	 * @return whether the Game was reset; it can't be reset when its Arena is
+	 *         already used by another Game
+	 */
+	public boolean reset();
+
 	/**
 	 * @return the Lobby which started this Game
 	 */
@@ -213,6 +224,14 @@ public interface Game extends Named {
 	 */
 	public Arena getArena();
 
+	/**
+	 * @return the Heightmap of this Game's area or null if the Game doesn't
+	 *         keep one
+	 */
+	public default Heightmap getHeightmap() {
+		return null;
+	}
+
 	/**
 	 * @return the maximum amount of players this Game can have or 0 if there is
 	 *         no limit
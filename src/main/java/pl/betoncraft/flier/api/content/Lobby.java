@@ -120,6 +120,14 @@ public interface Lobby extends Named {
 	 */
 	public void stop();
 
+	/**
+	 * Stops reusing Games which were created before the content was reloaded,
+	 * so next Games get the new configuration. Lobbies which don't reuse
+	 * Games don't need to do anything.
+	 */
+	public default void dropReusedGames() {
+	}
+
 	/**
 	 * @return the map of Game lists by their names; each Game can run in
 	 *         multiple instances at once, that's why there are lists
@@ -23,14 +23,9 @@
  */
 package pl.betoncraft.flier.api.core;
 
-import java.util.List;
-
 import org.bukkit.entity.Entity;
-import org.bukkit.metadata.FixedMetadataValue;
-import org.bukkit.metadata.MetadataValue;
 
-import pl.betoncraft.flier.api.Flier;
-import pl.betoncraft.flier.core.DefaultAttacker;
+import pl.betoncraft.flier.util.AttackerRegistry;
 
 /**
  * Groups together the Damager used in the attack, the author of the attack and
@@ -40,11 +35,6 @@ import pl.betoncraft.flier.core.DefaultAttacker;
  */
 public interface Attacker {
 
-	public static final String DAMAGER = "flier-damager";
-	public static final String CREATOR = "flier-creator";
-	public static final String SOURCE = "flier-source";
-	public static final String WEAPON = "flier-weapon";
-
 	/**
 	 * @return the Damager used in the attack
 	 */
@@ -69,39 +59,53 @@ public interface Attacker {
 	public UsableItem getWeapon();
 
 	/**
-	 * Reads the Attacker from the projectile. It will return null if the
-	 * projectile source is not a Damager.
+	 * Reads the Attacker of the projectile. It will return null if the
+	 * projectile was not launched by a Damager or it was already removed.
 	 * 
 	 * @param entity
 	 *            projectile which was launched by Damager
 	 * @return Attacker or null
 	 */
 	public static Attacker getAttacker(Entity entity) {
-		List<MetadataValue> listD = entity.getMetadata(DAMAGER);
-		List<MetadataValue> listC = entity.getMetadata(CREATOR);
-		List<MetadataValue> listS = entity.getMetadata(SOURCE);
-		List<MetadataValue> listW = entity.getMetadata(WEAPON);
-		Damager d = listD == null || listD.isEmpty() ? null : (Damager) listD.get(0).value();
-		InGamePlayer c = listC == null || listC.isEmpty() ? null : (InGamePlayer) listC.get(0).value();
-		InGamePlayer s = listS == null || listS.isEmpty() ? null : (InGamePlayer) listS.get(0).value();
-		UsableItem w = listW == null || listW.isEmpty() ? null : (UsableItem) listW.get(0).value();
-		return new DefaultAttacker(d, c, s, w);
+		return AttackerRegistry.get(entity);
 	}
 
 	/**
-	 * Adds Damager to metadata of the projectile, so Flier can handle it once
-	 * it hits someone.
+	 * Registers the Attacker of the projectile, so Flier can handle it once it
+	 * hits someone. The projectile is removed after the first hit.
 	 * 
 	 * @param entity
 	 *            projectile which was launched by Damager
-	 * @param damager
-	 *            Damager which is the source of that projectile
+	 * @param attacker
+	 *            Attacker responsible for that projectile
 	 */
 	public static void saveAttacker(Entity entity, Attacker attacker) {
-		entity.setMetadata(DAMAGER, new FixedMetadataValue(Flier.getInstance(), attacker.getDamager()));
-		entity.setMetadata(CREATOR, new FixedMetadataValue(Flier.getInstance(), attacker.getCreator()));
-		entity.setMetadata(SOURCE, new FixedMetadataValue(Flier.getInstance(), attacker.getSource()));
-		entity.setMetadata(WEAPON, new FixedMetadataValue(Flier.getInstance(), attacker.getWeapon()));
+		AttackerRegistry.put(entity, attacker, true);
+	}
+
+	/**
+	 * Registers the Attacker of the projectile, so Flier can handle it once it
+	 * hits someone.
+	 * 
+	 * @param entity
+	 *            projectile which was launched by Damager
+	 * @param attacker
+	 *            Attacker responsible for that projectile
+	 * @param single
+	 *            whether the projectile should be removed after the first hit
+	 */
+	public static void saveAttacker(Entity entity, Attacker attacker, boolean single) {
+		AttackerRegistry.put(entity, attacker, single);
+	}
+
+	/**
+	 * Forgets the Attacker of the projectile, for example when it expires.
+	 * 
+	 * @param entity
+	 *            projectile which was launched by Damager
+	 */
+	public static void removeAttacker(Entity entity) {
+		AttackerRegistry.remove(entity);
 	}
 
-}
\ No newline at end of file
+}
@@ -29,6 +29,10 @@ import java.util.Map;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
+import pl.betoncraft.flier.util.Position;
+import pl.betoncraft.flier.util.Triggers;
+import pl.betoncraft.flier.util.Utils;
+
 /**
  * Represents a player who is in a Game.
  *
@@ -37,7 +41,7 @@ import org.bukkit.entity.Player;
 public interface InGamePlayer extends Target {
 
 	/**
-	 * Adds a trigger to the list. Triggers are events that happen on this
+	 * Adds a trigger to the set. Triggers are events that happen on this
 	 * particular tick, for example left or right clicks.
 	 *
 	 * @param name
@@ -46,9 +50,10 @@ public interface InGamePlayer extends Target {
 	public void addTrigger(String name);
 
 	/**
-	 * @return the list of triggers which happened during this tick
+	 * @return the bit set of triggers which happened during this tick, with
+	 *         bits assigned by {@link Triggers}
 	 */
-	public List<String> getTriggers();
+	public long getTriggers();
 
 	/**
 	 * @return the UsableItem which is currently held by the player
@@ -100,6 +105,26 @@ public interface InGamePlayer extends Target {
 	 */
 	public boolean isPlaying();
 
+	/**
+	 * @return the position of the player in this tick, one of GROUND, AIR and
+	 *         FALL; by default it's classified again on each call
+	 */
+	public default Usage.Where getPosition() {
+		return Position.classify(this);
+	}
+
+	/**
+	 * Counts air blocks below the player. The result should be calculated
+	 * once per tick; by default blocks are counted on each call.
+	 * 
+	 * @param max
+	 *            maximum altitude to count
+	 * @return the altitude, between 0 and max
+	 */
+	public default int getAltitude(int max) {
+		return Utils.getAltitude(getPlayer().getLocation(), max);
+	}
+
 	/**
 	 * @param isPlaying
 	 *            whenever the player is currently playing
@@ -149,6 +174,19 @@ public interface InGamePlayer extends Target {
 	 */
 	public void updateColors(Map<String, ChatColor> map);
 
+	/**
+	 * Update the color of a single player on the Scoreboard, without touching
+	 * other players. By default all colors of the Game are updated instead.
+	 * 
+	 * @param name
+	 *            name of the player
+	 * @param color
+	 *            the new color of that player or null to remove it
+	 */
+	public default void updateColor(String name, ChatColor color) {
+		updateColors(getGame().getColors());
+	}
+
 	/**
 	 * @return a mutable list of SidebarLines this player has.
 	 */
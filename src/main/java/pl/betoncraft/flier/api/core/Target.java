@@ -95,4 +95,23 @@ public interface Target {
 	 */
 	public String getName();
 
+	/**
+	 * @return the index of this Target's team in the Game, used to quickly
+	 *         check Attitudes; 0 means no team, which is also the default for
+	 *         Targets which don't store the index
+	 */
+	public default int getTeamIndex() {
+		return 0;
+	}
+
+	/**
+	 * Sets the index of this Target's team. Called by the Game. By default
+	 * the index is ignored and the Target stays without a team.
+	 * 
+	 * @param index
+	 *            the index of the team, 0 means no team
+	 */
+	public default void setTeamIndex(int index) {
+	}
+
 }
@@ -24,6 +24,9 @@
 package pl.betoncraft.flier.api.core;
 
 import java.util.List;
+import java.util.Set;
+
+import pl.betoncraft.flier.api.content.Activator.Dependency;
 
 /**
  * Represents an item which can be used by the player to run an action.
@@ -33,12 +36,24 @@ import java.util.List;
 public interface UsableItem extends Item {
 
 	/**
-	 * Uses this item once.
+	 * Uses this item once, checking all of its usages.
 	 * 
 	 * @return if the item was used or not
 	 */
 	public boolean use();
 
+	/**
+	 * Uses this item once. Usages which failed on an Activator are checked
+	 * only if its dependency has changed. By default all usages are checked.
+	 * 
+	 * @param changed
+	 *            dependencies which changed since the last use
+	 * @return if the item was used or not
+	 */
+	public default boolean use(Set<Dependency> changed) {
+		return use();
+	}
+
 	/**
 	 * @return the list of all usages of this item
 	 */
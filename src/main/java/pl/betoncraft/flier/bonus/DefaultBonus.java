@@ -44,6 +44,7 @@ import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Owner;
 import pl.betoncraft.flier.event.FlierCollectBonusEvent;
 import pl.betoncraft.flier.util.LangManager;
+import pl.betoncraft.flier.util.TimingWheel.Timer;
 import pl.betoncraft.flier.util.ValueLoader;
 
 /**
@@ -65,7 +66,7 @@ public abstract class DefaultBonus implements Bonus {
 
 	protected boolean available = false;
 	protected Map<UUID, Integer> cooldowns = new HashMap<>();
-	protected BukkitRunnable starter;
+	protected final Timer starter = new Timer(() -> release());
 	protected Game game;
 	protected int ticks = 0;
 	protected BukkitRunnable ticker;
@@ -145,13 +146,7 @@ public abstract class DefaultBonus implements Bonus {
 			}
 			if (consumable) {
 				block();
-				starter = new BukkitRunnable() {
-					@Override
-					public void run() {
-						release();
-					}
-				};
-				starter.runTaskLater(Flier.getInstance(), respawn);
+				starter.schedule(respawn);
 			}
 		}
 	}
@@ -162,7 +157,6 @@ public abstract class DefaultBonus implements Bonus {
 	 */
 	protected void release() {
 		available = true;
-		starter = null;
 	}
 	
 	/**
@@ -175,6 +169,8 @@ public abstract class DefaultBonus implements Bonus {
 	@Override
 	public void start() {
 		available = true;
+		ticks = 0;
+		cooldowns.clear();
 		ticker = new BukkitRunnable() {
 			@Override
 			public void run() {
@@ -187,10 +183,7 @@ public abstract class DefaultBonus implements Bonus {
 	
 	@Override
 	public void stop() {
-		if (starter != null) {
-			starter.cancel();
-			starter = null;
-		}
+		starter.cancel();
 		if (ticker != null) {
 			ticker.cancel();
 			ticker = null;
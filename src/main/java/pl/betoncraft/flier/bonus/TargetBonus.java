@@ -45,6 +45,7 @@ public class TargetBonus extends EntityBonus implements Target {
 	
 	protected Attacker attacker;
 	protected int noDamageTicks = 0;
+	protected int teamIndex = 0;
 
 	public TargetBonus(ConfigurationSection section, Game game, Optional<Owner> owner) throws LoadingException {
 		super(section, game, owner);
@@ -115,5 +116,15 @@ public class TargetBonus extends EntityBonus implements Target {
 	public String getName() {
 		return id;
 	}
+	
+	@Override
+	public int getTeamIndex() {
+		return teamIndex;
+	}
+	
+	@Override
+	public void setTeamIndex(int index) {
+		teamIndex = index;
+	}
 
 }
@@ -26,7 +26,6 @@ package pl.betoncraft.flier.command;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
@@ -37,8 +36,6 @@ import com.google.common.collect.Sets;
 
 import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Button;
-import pl.betoncraft.flier.api.content.Game;
-import pl.betoncraft.flier.api.content.Lobby;
 import pl.betoncraft.flier.api.core.CommandArgument;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.util.LangManager;
@@ -97,18 +94,7 @@ public class ChooseItemArgument implements CommandArgument {
 				player = (Player) sender;
 			}
 		}
-		UUID uuid = player.getUniqueId();
-		InGamePlayer data = null;
-		loop: for (Lobby lobby : flier.getLobbies().values()) {
-			for (List<Game> games : lobby.getGames().values()) {
-				for (Game game : games) {
-					data = game.getPlayers().get(uuid);
-					if (data != null) {
-						break loop;
-					}
-				}
-			}
-		}
+		InGamePlayer data = flier.getPlayers().get(player.getUniqueId());
 		if (data != null) {
 			Button button = data.getGame().getButtons().get(item);
 			if (button != null) {
@@ -50,6 +50,7 @@ public class FlierCommand implements CommandExecutor {
 		arguments.add(new LoadArgument());
 		arguments.add(new CoordinatorArgument());
 		arguments.add(new ReloadArgument());
+		arguments.add(new BudgetArgument());
 	}
 	
 	@Override
@@ -70,7 +70,8 @@ class LeaveLobbyArgument implements CommandArgument {
 				player = (Player) sender;
 			}
 		}
-		for (Lobby lobby : f.getLobbies().values()) {
+		Lobby lobby = f.getPlayerLobby(player.getUniqueId());
+		if (lobby != null) {
 			lobby.removePlayer(player);
 		}
 	}
@@ -27,7 +27,6 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
@@ -35,8 +34,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.permissions.Permission;
 
 import pl.betoncraft.flier.api.Flier;
-import pl.betoncraft.flier.api.content.Game;
-import pl.betoncraft.flier.api.content.Lobby;
 import pl.betoncraft.flier.api.core.CommandArgument;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.util.LangManager;
@@ -60,18 +57,7 @@ public class MoneyArgument implements CommandArgument {
 				LangManager.sendMessage(sender, "player_offline", playerName);
 				return;
 			}
-			UUID uuid = player.getUniqueId();
-			InGamePlayer data = null;
-			loop: for (Lobby lobby : Flier.getInstance().getLobbies().values()) {
-				for (List<Game> games : lobby.getGames().values()) {
-					for (Game game : games) {
-						data = game.getPlayers().get(uuid);
-						if (data != null) {
-							break loop;
-						}
-					}
-				}
-			}
+			InGamePlayer data = Flier.getInstance().getPlayers().get(player.getUniqueId());
 			if (data == null) {
 				LangManager.sendMessage(sender, "not_in_game", playerName);
 				return;
@@ -46,8 +46,8 @@ class ReloadArgument implements CommandArgument {
 	@Override
 	public void parse(CommandSender sender, String currentCommand, Iterator<String> it) {
 		Flier f = Flier.getInstance();
-		f.reload();
-		LangManager.sendMessage(sender, "reloaded");
+		boolean incremental = it.hasNext() && it.next().equalsIgnoreCase("changes");
+		f.reload(incremental).thenAccept(success -> LangManager.sendMessage(sender, success ? "reloaded" : "reload_failed"));
 	}
 
 	@Override
@@ -67,7 +67,7 @@ class ReloadArgument implements CommandArgument {
 
 	@Override
 	public String getHelp(CommandSender sender) {
-		return "";
+		return "[changes]";
 	}
 
 	@Override
@@ -80,16 +80,11 @@ public class StartGameArgument implements CommandArgument {
 				player = (Player) sender;
 			}
 		}
-		boolean found = false;
-		for (Lobby lobby : flier.getLobbies().values()) {
-			if (lobby.getPlayers().contains(player.getUniqueId())) {
-				found = true;
-				JoinResult res = lobby.joinGame(player, game);
-				DefaultLobby.joinMessage(player, res);
-				break;
-			}
-		}
-		if (!found) {
+		Lobby lobby = flier.getPlayerLobby(player.getUniqueId());
+		if (lobby != null) {
+			JoinResult res = lobby.joinGame(player, game);
+			DefaultLobby.joinMessage(player, res);
+		} else {
 			if (player.equals(sender)) {
 				LangManager.sendMessage(sender, "you_not_in_lobby");
 			} else {
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+
+import pl.betoncraft.flier.api.content.Action;
+import pl.betoncraft.flier.api.content.Activator;
+import pl.betoncraft.flier.api.content.Activator.Dependency;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+import pl.betoncraft.flier.api.core.UsableItem;
+import pl.betoncraft.flier.api.core.Usage;
+import pl.betoncraft.flier.event.FlierUseEvent;
+
+/**
+ * A Usage prepared for checking every tick. Activators with a dependency
+ * which are placed before all other activators don't count their checks,
+ * so they are checked first, from the cheapest one, before the ammo and
+ * the position. The rest is checked in the original order. Activators and
+ * actions are called by an evaluator generated for their exact types with
+ * {@link UsageCompiler} and other settings of the Usage are copied to fields.
+ *
+ * @author Jakub Sapalski
+ */
+class CompiledUsage {
+
+	private final Usage usage;
+	private final Dependency[] dependencies;
+	private final UsageEvaluator evaluator;
+	private final boolean everywhere;
+	private final int ammoUse;
+	private final int cooldown;
+
+	private Dependency sleeping;
+
+	CompiledUsage(Usage usage) {
+		this.usage = usage;
+		List<Activator> all = usage.getActivators();
+		int split = 0;
+		while (split < all.size() && all.get(split).getDependency() != Dependency.ANY) {
+			split++;
+		}
+		List<Activator> prefix = new ArrayList<>(all.subList(0, split));
+		prefix.sort(Comparator.comparing(Activator::getDependency));
+		Activator[] waiting = prefix.toArray(new Activator[prefix.size()]);
+		dependencies = new Dependency[waiting.length];
+		for (int i = 0; i < waiting.length; i++) {
+			dependencies[i] = waiting[i].getDependency();
+		}
+		Activator[] counting = all.subList(split, all.size()).toArray(new Activator[all.size() - split]);
+		Action[] actions = usage.getActions().toArray(new Action[usage.getActions().size()]);
+		evaluator = UsageCompiler.compile(waiting, counting, actions);
+		everywhere = usage.where() == Usage.Where.EVERYWHERE;
+		ammoUse = usage.getAmmoUse();
+		cooldown = usage.getCooldown();
+	}
+
+	/**
+	 * Checks whether the usage can be used right now.
+	 * 
+	 * @param owner
+	 *            the player using the item
+	 * @param item
+	 *            the item, ammo of which is checked
+	 * @param changed
+	 *            dependencies which changed since the last check
+	 * @return whether the usage can be used
+	 */
+	boolean check(InGamePlayer owner, UsableItem item, Set<Dependency> changed) {
+		// skip the usage if it can't be activated until something changes
+		if (sleeping != null) {
+			if (!changed.contains(sleeping)) {
+				return false;
+			}
+			sleeping = null;
+		}
+		int inactive = evaluator.waiting(owner);
+		if (inactive >= 0) {
+			sleeping = dependencies[inactive];
+			return false;
+		}
+		if (ammoUse != 0 && item.getMaxAmmo() > 0 && item.getAmmo() - ammoUse < 0) {
+			sleeping = Dependency.AMMO;
+			return false;
+		}
+		if (!everywhere && !usage.canUse(owner)) {
+			return false;
+		}
+		if (!evaluator.counting(owner)) {
+			return false;
+		}
+		FlierUseEvent event = new FlierUseEvent(owner, item, usage);
+		Bukkit.getPluginManager().callEvent(event);
+		return !event.isCancelled();
+	}
+
+	/**
+	 * Runs all actions of the usage.
+	 */
+	void act(InGamePlayer owner) {
+		evaluator.act(owner);
+	}
+
+	/**
+	 * Wakes up the usage if it waits for this dependency.
+	 */
+	void wake(Dependency dependency) {
+		if (sleeping == dependency) {
+			sleeping = null;
+		}
+	}
+
+	/**
+	 * Wakes up the usage.
+	 */
+	void wake() {
+		sleeping = null;
+	}
+
+	int getAmmoUse() {
+		return ammoUse;
+	}
+
+	int getCooldown() {
+		return cooldown;
+	}
+
+}
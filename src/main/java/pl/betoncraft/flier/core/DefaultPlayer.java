@@ -25,10 +25,12 @@ package pl.betoncraft.flier.core;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
@@ -37,6 +39,7 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.bukkit.scoreboard.Objective;
@@ -50,6 +53,7 @@ import com.google.common.collect.Lists;
 import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Action;
 import pl.betoncraft.flier.api.content.Activator;
+import pl.betoncraft.flier.api.content.Activator.Dependency;
 import pl.betoncraft.flier.api.content.Engine;
 import pl.betoncraft.flier.api.content.Game;
 import pl.betoncraft.flier.api.content.Game.Attitude;
@@ -64,7 +68,11 @@ import pl.betoncraft.flier.api.core.UsableItem;
 import pl.betoncraft.flier.api.core.Usage;
 import pl.betoncraft.flier.event.FlierEngineUseEvent;
 import pl.betoncraft.flier.event.FlierPlayerHitEvent;
+import pl.betoncraft.flier.util.Heightmap;
 import pl.betoncraft.flier.util.LangManager;
+import pl.betoncraft.flier.util.Position;
+import pl.betoncraft.flier.util.TimingWheel;
+import pl.betoncraft.flier.util.Triggers;
 import pl.betoncraft.flier.util.Utils;
 
 /**
@@ -74,6 +82,10 @@ import pl.betoncraft.flier.util.Utils;
  */
 public class DefaultPlayer implements InGamePlayer {
 	
+	private static final int STORAGE = 36;
+	private static final Set<String> COLOR_TEAMS = Arrays.asList(ChatColor.values()).stream()
+			.map(color -> color.name().toLowerCase()).collect(Collectors.toSet());
+	
 	private Player player;
 	private Game game;
 	private Kit kit;
@@ -85,8 +97,22 @@ public class DefaultPlayer implements InGamePlayer {
 	private int tickCounter = 0;
 
 	private boolean isPlaying;
-	private List<String> triggers = new ArrayList<>();
+	private long triggers = 0;
+	private final List<UsableItem> usable = new ArrayList<>();
+	private final Set<Dependency> changed = EnumSet.noneOf(Dependency.class);
+	private int heldSlot = -1;
+	private Material heldType;
+	private double wingsHealth = -1;
+	private final UsableItem[] sentItems = new UsableItem[STORAGE];
+	private final ItemStack[] sentStacks = new ItemStack[STORAGE];
+	private int sentVersion = -1;
+	private long positionTick = -1;
+	private Usage.Where position;
+	private long altitudeTick = -1;
+	private int altitude;
+	private int altitudeMax;
 	private int noDamageTicks = 0;
+	private int teamIndex = 0;
 	private List<SidebarLine> lines = new LinkedList<>();
 	private Attacker lastHit = null;
 	private ChatColor color = ChatColor.WHITE;
@@ -153,7 +179,7 @@ public class DefaultPlayer implements InGamePlayer {
 			
 			// manage UsableItems
 			use();
-			triggers.clear();
+			triggers = 0;
 			noDamageTicks--;
 		}
 		displayReloadingTime();
@@ -215,12 +241,12 @@ public class DefaultPlayer implements InGamePlayer {
 	@Override
 	public void addTrigger(String name) {
 		if (isPlaying()) {
-			triggers.add(name);
+			triggers |= Triggers.mask(name);
 		}
 	}
 	
 	@Override
-	public List<String> getTriggers() {
+	public long getTriggers() {
 		return triggers;
 	}
 	
@@ -293,6 +319,16 @@ public class DefaultPlayer implements InGamePlayer {
 		return noDamageTicks;
 	}
 	
+	@Override
+	public int getTeamIndex() {
+		return teamIndex;
+	}
+	
+	@Override
+	public void setTeamIndex(int index) {
+		teamIndex = index;
+	}
+	
 	@Override
 	public void setNoDamageTicks(int noDamageTicks) {
 		this.noDamageTicks = noDamageTicks;
@@ -333,30 +369,26 @@ public class DefaultPlayer implements InGamePlayer {
 		if (item == null) {
 			return;
 		}
-		int slot = item.slot();
-		int amount = item.getAmount();
-		ItemStack stack = player.getInventory().getItem(slot);
-		ItemStack compare = item.getItem(this);
-		// if the stack was not on the correct slot or there was another item, find the correct one
-		if (stack == null || !stack.isSimilar(compare)) {
-			ItemStack[] inv = player.getInventory().getContents();
-			for (int i = 0; i < inv.length; i++) {
-				if (inv[i] != null && compare.isSimilar(inv[i])) {
-					stack = inv[i];
-					slot = i; // remember the current slot, so we can remove it
-					break;
-				}
+		// the slot where this item was placed by the last kit update
+		int slot = -1;
+		for (int i = 0; i < STORAGE; i++) {
+			if (sentItems[i] == item) {
+				slot = i;
+				break;
 			}
 		}
 		// no such item, can't remove
-		if (stack == null) {
+		if (slot < 0) {
 			return;
 		}
-		amount--;
+		int amount = item.getAmount() - 1;
 		if (amount <= 0) { // remove stack
-			player.getInventory().setItem(slot, null); // here the remembered slot is used
+			player.getInventory().setItem(slot, null);
+			sentItems[slot] = null;
+			sentStacks[slot] = null;
 		} else { // decrease stack
-			stack.setAmount(amount);
+			sentStacks[slot].setAmount(amount);
+			player.getInventory().setItem(slot, sentStacks[slot]);
 			item.setAmmo(item.getMaxAmmo());
 		}
 		kit.removeItem(item);
@@ -419,6 +451,30 @@ public class DefaultPlayer implements InGamePlayer {
 		return isPlaying;
 	}
 
+	@Override
+	public Usage.Where getPosition() {
+		long tick = TimingWheel.getTick();
+		if (tick != positionTick) {
+			position = Position.classify(this);
+			positionTick = tick;
+		}
+		return position;
+	}
+
+	@Override
+	public int getAltitude(int max) {
+		long tick = TimingWheel.getTick();
+		// the cached altitude can be reused unless it was cut at a lower maximum
+		if (tick != altitudeTick || (altitude >= altitudeMax && max > altitudeMax)) {
+			Heightmap heightmap = game.getHeightmap();
+			altitude = heightmap == null ? Utils.getAltitude(player.getLocation(), max)
+					: heightmap.getAltitude(player.getLocation(), max);
+			altitudeMax = max;
+			altitudeTick = tick;
+		}
+		return Math.min(altitude, max);
+	}
+
 	@Override
 	public void setPlaying(boolean isPlaying) {
 		this.isPlaying = isPlaying;
@@ -431,31 +487,79 @@ public class DefaultPlayer implements InGamePlayer {
 	
 	@Override
 	public void updateKit() {
-		Engine engine = kit.getEngine();
-		Wings wings = kit.getWings();
-		List<UsableItem> items = kit.getItems();
-		player.getInventory().clear();
-		player.getInventory().setItemInOffHand(engine.getItem(this));
-		player.getInventory().setChestplate(wings.getItem(this));
-		for (UsableItem item : items) {
-			int amount = item.getAmount();
+		// items could have changed, so wake up usages waiting for them
+		heldSlot = -1;
+		wingsHealth = -1;
+		PlayerInventory inv = player.getInventory();
+		// place items with a slot first, then fill free slots outside the hotbar
+		UsableItem[] layout = new UsableItem[STORAGE];
+		List<UsableItem> loose = new ArrayList<>();
+		for (UsableItem item : kit.getItems()) {
 			int slot = item.slot();
-			ItemStack itemStack = item.getItem(this);
-			itemStack.setAmount(amount);
-			if (slot >= 0) {
-				player.getInventory().setItem(slot, itemStack);
+			if (slot >= 0 && slot < STORAGE) {
+				layout[slot] = item;
 			} else {
-				ItemStack[] content = player.getInventory().getContents();
-				int i = 9;
-				while (i < 36) {
-					if (content[i] == null) {
-						content[i] = itemStack;
-						break;
-					}
+				loose.add(item);
+			}
+		}
+		int free = 9;
+		for (UsableItem item : loose) {
+			while (free < STORAGE && layout[free] != null) {
+				free++;
+			}
+			if (free < STORAGE) {
+				layout[free] = item;
+			}
+		}
+		// send only slots which differ from what was sent before, all of them
+		// if the messages were reloaded and item names could have changed
+		ItemStack[] contents = inv.getStorageContents();
+		boolean translated = sentVersion == LangManager.getVersion();
+		sentVersion = LangManager.getVersion();
+		for (int i = 0; i < STORAGE; i++) {
+			UsableItem item = layout[i];
+			if (item == null) {
+				if (contents[i] != null) {
+					inv.setItem(i, null);
 				}
-				player.getInventory().setContents(content);
+				sentItems[i] = null;
+				sentStacks[i] = null;
+				continue;
 			}
+			int amount = item.getAmount();
+			if (sentItems[i] != item || !translated) {
+				sentItems[i] = item;
+				sentStacks[i] = item.getItem(this);
+			} else if (isSent(contents[i], sentStacks[i], amount)) {
+				continue;
+			}
+			sentStacks[i].setAmount(amount);
+			inv.setItem(i, sentStacks[i]);
+		}
+		if (inv.getHelmet() != null) {
+			inv.setHelmet(null);
+		}
+		if (inv.getLeggings() != null) {
+			inv.setLeggings(null);
 		}
+		if (inv.getBoots() != null) {
+			inv.setBoots(null);
+		}
+		ItemStack engine = kit.getEngine().getItem(this);
+		if (!isSent(inv.getItemInOffHand(), engine, 1)) {
+			inv.setItemInOffHand(engine);
+		}
+		ItemStack wings = kit.getWings().getItem(this);
+		if (!isSent(inv.getChestplate(), wings, 1)) {
+			inv.setChestplate(wings);
+		}
+	}
+
+	/**
+	 * Checks whether the stack in the inventory is the one which was sent.
+	 */
+	private boolean isSent(ItemStack actual, ItemStack sent, int amount) {
+		return actual != null && actual.getAmount() == amount && actual.isSimilar(sent);
 	}
 	
 	@Override
@@ -493,24 +597,41 @@ public class DefaultPlayer implements InGamePlayer {
 	
 	@Override
 	public void updateColors(Map<String, ChatColor> map) {
-		List<String> colors = Arrays.asList(ChatColor.values()).stream()
-				.map(color -> color.name().toLowerCase()).collect(Collectors.toList());
+		// remove players which are not in the map anymore
 		for (Team team : sb.getTeams()) {
-			if (colors.contains(team.getName())) {
-				team.unregister();
+			if (COLOR_TEAMS.contains(team.getName())) {
+				for (String entry : new ArrayList<>(team.getEntries())) {
+					if (!map.containsKey(entry)) {
+						team.removeEntry(entry);
+					}
+				}
 			}
 		}
+		// only changed players are moved between teams
 		for (Entry<String, ChatColor> e : map.entrySet()) {
-			String player = e.getKey();
-			ChatColor color = e.getValue();
-			String colorName = color.name().toLowerCase();
-			Team team = sb.getTeam(colorName);
-			if (team == null) {
-				team = sb.registerNewTeam(colorName);
+			updateColor(e.getKey(), e.getValue());
+		}
+	}
+	
+	@Override
+	public void updateColor(String name, ChatColor color) {
+		String colorName = color == null ? null : color.name().toLowerCase();
+		Team current = sb.getEntryTeam(name);
+		if (current != null && COLOR_TEAMS.contains(current.getName())) {
+			if (current.getName().equals(colorName)) {
+				return;
 			}
-			team.addEntry(player.toString());
+			current.removeEntry(name);
+		}
+		if (color == null) {
+			return;
+		}
+		Team team = sb.getTeam(colorName);
+		if (team == null) {
+			team = sb.registerNewTeam(colorName);
 			team.setPrefix(ChatColor.COLOR_CHAR + "" + color.getChar());
 		}
+		team.addEntry(name);
 	}
 
 	@Override
@@ -654,10 +775,30 @@ public class DefaultPlayer implements InGamePlayer {
 		if (!isPlaying()) {
 			return;
 		}
+		// find out what has changed since the last tick, so items can skip
+		// usages which are waiting for something else
+		changed.clear();
+		if (triggers != 0) {
+			changed.add(Dependency.TRIGGER);
+		}
+		int slot = player.getInventory().getHeldItemSlot();
+		ItemStack held = player.getInventory().getItemInMainHand();
+		Material type = held == null ? Material.AIR : held.getType();
+		if (slot != heldSlot || type != heldType) {
+			heldSlot = slot;
+			heldType = type;
+			changed.add(Dependency.HELD_ITEM);
+		}
+		double health = kit.getWings().getHealth();
+		if (health != wingsHealth) {
+			wingsHealth = health;
+			changed.add(Dependency.WINGS_HEALTH);
+		}
 		// iterate over copied list to avoid concurrent modifications
-		List<UsableItem> copy = new ArrayList<>(kit.getItems());
-		for (UsableItem item : copy) {
-			if (item.use() && item.getAmmo() == 0 && item.isConsumable()) {
+		usable.clear();
+		usable.addAll(kit.getItems());
+		for (UsableItem item : usable) {
+			if (item.use(changed) && item.getAmmo() == 0 && item.isConsumable()) {
 				consumeItem(item);
 			}
 		}
@@ -24,14 +24,14 @@
 package pl.betoncraft.flier.core;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 
-import pl.betoncraft.flier.api.content.Action;
-import pl.betoncraft.flier.api.content.Activator;
+import pl.betoncraft.flier.api.content.Activator.Dependency;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.Item;
 import pl.betoncraft.flier.api.core.LoadingException;
@@ -39,7 +39,7 @@ import pl.betoncraft.flier.api.core.Modification;
 import pl.betoncraft.flier.api.core.Modification.ModificationTarget;
 import pl.betoncraft.flier.api.core.UsableItem;
 import pl.betoncraft.flier.api.core.Usage;
-import pl.betoncraft.flier.event.FlierUseEvent;
+import pl.betoncraft.flier.util.TimingWheel;
 
 /**
  * Default implementation of UsableItem.
@@ -50,6 +50,7 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 	
 	private static final String AMMO = "ammo";
 	private static final String CONSUMABLE = "consumable";
+	private static final Set<Dependency> ALL = EnumSet.allOf(Dependency.class);
 
 	protected final InGamePlayer owner;
 	protected final int startingCooldown;
@@ -59,16 +60,18 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 	protected final int defAmount;
 	protected final int maxAmount;
 	protected final int minAmount;
+	private final CompiledUsage[] compiled;
 
 	protected int amount;
-	protected int time;
+	protected long ready;
 	protected int whole;
 	protected int ammo;
 
 	public DefaultUsableItem(ConfigurationSection section, InGamePlayer owner) throws LoadingException {
 		super(section);
 		this.owner = owner;
-		whole = time = startingCooldown = loader.loadNonNegativeInt("starting_cooldown", 0);
+		whole = startingCooldown = loader.loadNonNegativeInt("starting_cooldown", 0);
+		ready = TimingWheel.getTick() + startingCooldown;
 		consumable = loader.loadBoolean(CONSUMABLE, false);
 		maxAmmo = loader.loadNonNegativeInt(AMMO, 0);
 		ammo = maxAmmo;
@@ -85,11 +88,15 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 				throw (LoadingException) new LoadingException(String.format("Error in '%s' usage.", id)).initCause(e);
 			}
 		}
+		compiled = new CompiledUsage[usages.size()];
+		for (int i = 0; i < compiled.length; i++) {
+			compiled[i] = new CompiledUsage(usages.get(i));
+		}
 	}
 
 	@Override
 	public boolean isReady() {
-		return time == 0;
+		return TimingWheel.getTick() >= ready;
 	}
 
 	@Override
@@ -99,7 +106,7 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 
 	@Override
 	public int getCooldown() {
-		return time;
+		return (int) Math.max(0, ready - TimingWheel.getTick());
 	}
 	
 	@Override
@@ -123,6 +130,9 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 
 	@Override
 	public void setAmmo(int ammo) {
+		if (ammo != this.ammo) {
+			wake(Dependency.AMMO);
+		}
 		this.ammo = ammo;
 		if (this.ammo < 0) {
 			this.ammo = 0;
@@ -175,43 +185,53 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 
 	@Override
 	public boolean use() {
-		if (time > 0) {
-			time--;
+		return use(ALL);
+	}
+
+	@Override
+	public boolean use(Set<Dependency> changed) {
+		if (!isReady()) {
+			// changes during the cooldown would be lost, usages must check them later
+			for (Dependency dependency : changed) {
+				wake(dependency);
+			}
+			return false;
 		}
+		long tick = TimingWheel.getTick();
 		boolean used = false;
-		if (isReady()) {
-			usages:
-			for (Usage usage : usages) {
-				if (!usage.canUse(owner)) {
-					continue;
-				}
-				if (getMaxAmmo() > 0 && ammo - usage.getAmmoUse() < 0) {
-					continue;
-				}
-				for (Activator activator : usage.getActivators()) {
-					if (!activator.isActive(owner, owner)) {
-						continue usages;
-					}
-				}
-				FlierUseEvent event = new FlierUseEvent(owner, this, usage);
-				Bukkit.getPluginManager().callEvent(event);
-				if (event.isCancelled()) {
-					continue;
-				}
-				used = true;
-				int cooldown = usage.getCooldown();
-				if (time < cooldown) {
-					time = cooldown;
-					whole = time;
-				}
-				setAmmo(ammo - usage.getAmmoUse());
-				for (Action action : usage.getActions()) {
-					action.act(owner, owner);
-				}
+		for (CompiledUsage usage : compiled) {
+			if (!usage.check(owner, this, changed)) {
+				continue;
 			}
+			used = true;
+			int cooldown = usage.getCooldown();
+			if (ready < tick + cooldown) {
+				ready = tick + cooldown;
+				whole = cooldown;
+			}
+			setAmmo(ammo - usage.getAmmoUse());
+			usage.act(owner);
 		}
 		return used;
 	}
+
+	/**
+	 * Wakes up all usages waiting on this dependency.
+	 */
+	protected void wake(Dependency dependency) {
+		for (CompiledUsage usage : compiled) {
+			usage.wake(dependency);
+		}
+	}
+
+	/**
+	 * Wakes up all usages, for example when the activators were modified.
+	 */
+	protected void wakeAll() {
+		for (CompiledUsage usage : compiled) {
+			usage.wake();
+		}
+	}
 	
 	@Override
 	public boolean isSimilar(Item item) {
@@ -227,8 +247,9 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 	@Override
 	public void refill() {
 		ammo = getMaxAmmo();
-		time = startingCooldown;
+		ready = TimingWheel.getTick() + startingCooldown;
 		whole = startingCooldown;
+		wakeAll();
 	}
 
 	@Override
@@ -243,6 +264,7 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 					.forEach(activator -> activator.addModification(mod))
 			);
 		}
+		wakeAll();
 	}
 
 	@Override
@@ -257,6 +279,7 @@ public class DefaultUsableItem extends DefaultItem implements UsableItem {
 					.forEach(activator -> activator.removeModification(mod))
 			);
 		}
+		wakeAll();
 	}
 	
 	@Override
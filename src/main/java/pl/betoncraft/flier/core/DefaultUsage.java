@@ -111,7 +111,7 @@ public class DefaultUsage implements Usage {
 
 	@Override
 	public boolean canUse(InGamePlayer player) {
-		return Position.check(player.getPlayer(), where);
+		return Position.check(player, where);
 	}
 
 	@Override
@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import pl.betoncraft.flier.api.content.Action;
+import pl.betoncraft.flier.api.content.Activator;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+
+/**
+ * Generates a {@link UsageEvaluator} class for each combination of activator
+ * and action types. The generated class keeps every activator and action in a
+ * field of its exact type and calls it directly, so each call site inside it
+ * sees only one class and can be inlined by the JIT. Types which can't be
+ * referenced from the generated class (not public or from other plugins) are
+ * called through their interface. Classes are written by hand in the Java 5
+ * format, which doesn't need stack map frames, because the plugin has no
+ * bytecode library.
+ *
+ * @author Jakub Sapalski
+ */
+class UsageCompiler {
+
+	private static final String PACKAGE = "pl/betoncraft/flier/core/generated/Usage";
+	private static final String OBJECT = "java/lang/Object";
+	private static final String PLAYER = "L" + internal(InGamePlayer.class) + ";";
+	private static final String CALL = "(" + PLAYER + PLAYER + ")Z";
+	private static final Logger LOG = Logger.getLogger(UsageCompiler.class.getName());
+
+	private static final Map<List<Object>, Constructor<?>> classes = new HashMap<>();
+	private static final Loader loader = new Loader();
+	private static int generated = 0;
+
+	/**
+	 * Creates the evaluator for these activators and actions.
+	 * 
+	 * @param waiting
+	 *            activators checked by {@link UsageEvaluator#waiting}
+	 * @param counting
+	 *            activators checked by {@link UsageEvaluator#counting}
+	 * @param actions
+	 *            actions run by {@link UsageEvaluator#act}
+	 * @return the evaluator, generated or a plain one if generating failed
+	 */
+	static synchronized UsageEvaluator compile(Activator[] waiting, Activator[] counting, Action[] actions) {
+		Object[] elements = new Object[waiting.length + counting.length + actions.length];
+		System.arraycopy(waiting, 0, elements, 0, waiting.length);
+		System.arraycopy(counting, 0, elements, waiting.length, counting.length);
+		System.arraycopy(actions, 0, elements, waiting.length + counting.length, actions.length);
+		// the shape of the usage: sizes of groups and types of their elements
+		List<Object> shape = new ArrayList<>(elements.length + 2);
+		shape.add(waiting.length);
+		shape.add(counting.length);
+		for (int i = 0; i < elements.length; i++) {
+			Class<?> api = i < waiting.length + counting.length ? Activator.class : Action.class;
+			String method = api == Activator.class ? "isActive" : "act";
+			Class<?> type = elements[i].getClass();
+			shape.add(isDirect(type, method) ? type : api);
+		}
+		Constructor<?> constructor = classes.get(shape);
+		// a shape which failed before is not generated again
+		if (constructor != null || !classes.containsKey(shape)) {
+			try {
+				if (constructor == null) {
+					String name = PACKAGE + generated++;
+					Class<?> type = loader.define(name.replace('/', '.'), write(name, shape));
+					constructor = type.getConstructor(Object[].class);
+				}
+				UsageEvaluator evaluator = (UsageEvaluator) constructor.newInstance((Object) elements);
+				classes.put(shape, constructor);
+				return evaluator;
+			} catch (ReflectiveOperationException | LinkageError | IOException | RuntimeException e) {
+				LOG.log(Level.WARNING, "Could not generate a usage evaluator, using a slower one", e);
+				classes.put(shape, null);
+			}
+		}
+		return new Plain(waiting, counting, actions);
+	}
+
+	/**
+	 * Checks whether the generated class can call this type directly.
+	 */
+	private static boolean isDirect(Class<?> type, String method) {
+		if (type.getClassLoader() != UsageCompiler.class.getClassLoader() || type.isSynthetic()
+				|| type.isAnonymousClass() || !Modifier.isPublic(type.getModifiers())) {
+			return false;
+		}
+		try {
+			Method m = type.getMethod(method, InGamePlayer.class, InGamePlayer.class);
+			Class<?> declaring = m.getDeclaringClass();
+			return !declaring.isInterface() && Modifier.isPublic(declaring.getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the class file of the evaluator for this shape.
+	 */
+	private static byte[] write(String name, List<Object> shape) throws IOException {
+		int waiting = (Integer) shape.get(0);
+		int counting = (Integer) shape.get(1);
+		List<Object> types = shape.subList(2, shape.size());
+		Pool pool = new Pool();
+		int thisClass = pool.type(name);
+		int superClass = pool.type(OBJECT);
+		int evaluator = pool.type(internal(UsageEvaluator.class));
+		int code = pool.utf("Code");
+		int[] fields = new int[types.size()];
+		int[] casts = new int[types.size()];
+		int[] calls = new int[types.size()];
+		boolean[] direct = new boolean[types.size()];
+		for (int i = 0; i < types.size(); i++) {
+			Class<?> type = (Class<?>) types.get(i);
+			String descriptor = "L" + internal(type) + ";";
+			direct[i] = !type.isInterface();
+			fields[i] = pool.member(9, name, "e" + i, descriptor);
+			casts[i] = pool.type(internal(type));
+			calls[i] = pool.member(direct[i] ? 10 : 11, internal(type), i < waiting + counting ? "isActive" : "act",
+					CALL);
+		}
+		int objectInit = pool.member(10, OBJECT, "<init>", "()V");
+
+		// constructor copies elements from the array to fields
+		Code init = new Code();
+		init.op(0x2a).op(0xb7).u2(objectInit); // aload_0, invokespecial
+		for (int i = 0; i < types.size(); i++) {
+			init.op(0x2a).op(0x2b).push(i).op(0x32); // aload_0, aload_1, index, aaload
+			init.op(0xc0).u2(casts[i]).op(0xb5).u2(fields[i]); // checkcast, putfield
+		}
+		init.op(0xb1); // return
+
+		// waiting activators return the index of the first inactive one
+		Code waitingCode = new Code();
+		for (int i = 0; i < waiting; i++) {
+			call(waitingCode, fields[i], calls[i], direct[i]);
+			waitingCode.op(0x9a).u2(3 + Code.pushLength(i) + 1); // ifne over the return
+			waitingCode.push(i).op(0xac); // ireturn
+		}
+		waitingCode.op(0x02).op(0xac); // iconst_m1, ireturn
+
+		// counting activators stop at the first inactive one
+		Code countingCode = new Code();
+		for (int i = waiting; i < waiting + counting; i++) {
+			call(countingCode, fields[i], calls[i], direct[i]);
+			countingCode.op(0x9a).u2(3 + 2); // ifne over the return
+			countingCode.op(0x03).op(0xac); // iconst_0, ireturn
+		}
+		countingCode.op(0x04).op(0xac); // iconst_1, ireturn
+
+		// actions are all run, their results are ignored
+		Code actCode = new Code();
+		for (int i = waiting + counting; i < types.size(); i++) {
+			call(actCode, fields[i], calls[i], direct[i]);
+			actCode.op(0x57); // pop
+		}
+		actCode.op(0xb1); // return
+
+		int[][] methods = {
+				{ pool.utf("<init>"), pool.utf("([Ljava/lang/Object;)V") },
+				{ pool.utf("waiting"), pool.utf("(" + PLAYER + ")I") },
+				{ pool.utf("counting"), pool.utf("(" + PLAYER + ")Z") },
+				{ pool.utf("act"), pool.utf("(" + PLAYER + ")V") }
+		};
+		Code[] codes = { init, waitingCode, countingCode, actCode };
+		int[] fieldNames = new int[types.size()];
+		int[] fieldTypes = new int[types.size()];
+		for (int i = 0; i < types.size(); i++) {
+			fieldNames[i] = pool.utf("e" + i);
+			fieldTypes[i] = pool.utf("L" + internal((Class<?>) types.get(i)) + ";");
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0); // minor version
+		out.writeShort(49); // Java 5, verified without stack map frames
+		pool.write(out);
+		out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(1);
+		out.writeShort(evaluator);
+		out.writeShort(types.size());
+		for (int i = 0; i < types.size(); i++) {
+			out.writeShort(0x0002 | 0x0010); // private final
+			out.writeShort(fieldNames[i]);
+			out.writeShort(fieldTypes[i]);
+			out.writeShort(0);
+		}
+		out.writeShort(methods.length);
+		for (int i = 0; i < methods.length; i++) {
+			out.writeShort(0x0001); // public
+			out.writeShort(methods[i][0]);
+			out.writeShort(methods[i][1]);
+			out.writeShort(1);
+			out.writeShort(code);
+			byte[] body = codes[i].toByteArray();
+			out.writeInt(12 + body.length);
+			out.writeShort(3); // max stack: field, owner, owner
+			out.writeShort(2); // max locals: this, owner
+			out.writeInt(body.length);
+			out.write(body);
+			out.writeShort(0); // exceptions
+			out.writeShort(0); // attributes
+		}
+		out.writeShort(0); // class attributes
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes a call of the element's method with the owner as both players.
+	 */
+	private static void call(Code code, int field, int method, boolean direct) {
+		code.op(0x2a).op(0xb4).u2(field).op(0x2b).op(0x2b); // aload_0, getfield, aload_1, aload_1
+		if (direct) {
+			code.op(0xb6).u2(method); // invokevirtual
+		} else {
+			code.op(0xb9).u2(method).op(3).op(0); // invokeinterface
+		}
+	}
+
+	private static String internal(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	/**
+	 * Constant pool of the written class.
+	 */
+	private static class Pool {
+
+		private final Map<String, Integer> indexes = new LinkedHashMap<>();
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private int next = 1;
+
+		int utf(String value) throws IOException {
+			Integer index = indexes.get("U" + value);
+			if (index == null) {
+				out.writeByte(1);
+				out.writeUTF(value);
+				index = add("U" + value);
+			}
+			return index;
+		}
+
+		int type(String name) throws IOException {
+			int utf = utf(name);
+			Integer index = indexes.get("C" + name);
+			if (index == null) {
+				out.writeByte(7);
+				out.writeShort(utf);
+				index = add("C" + name);
+			}
+			return index;
+		}
+
+		/**
+		 * Adds a field (9), method (10) or interface method (11) reference.
+		 */
+		int member(int tag, String owner, String name, String descriptor) throws IOException {
+			int type = type(owner);
+			int nameUtf = utf(name);
+			int descriptorUtf = utf(descriptor);
+			Integer nameAndType = indexes.get("N" + name + " " + descriptor);
+			if (nameAndType == null) {
+				out.writeByte(12);
+				out.writeShort(nameUtf);
+				out.writeShort(descriptorUtf);
+				nameAndType = add("N" + name + " " + descriptor);
+			}
+			String key = tag + owner + "." + name + descriptor;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				out.writeByte(tag);
+				out.writeShort(type);
+				out.writeShort(nameAndType);
+				index = add(key);
+			}
+			return index;
+		}
+
+		private int add(String key) {
+			indexes.put(key, next);
+			return next++;
+		}
+
+		void write(DataOutputStream target) throws IOException {
+			target.writeShort(next);
+			target.write(bytes.toByteArray());
+		}
+
+	}
+
+	/**
+	 * Bytecode of a single method.
+	 */
+	private static class Code extends ByteArrayOutputStream {
+
+		Code op(int opcode) {
+			write(opcode);
+			return this;
+		}
+
+		Code u2(int value) {
+			write(value >> 8);
+			write(value);
+			return this;
+		}
+
+		/**
+		 * Pushes a small non-negative integer.
+		 */
+		Code push(int value) {
+			if (value <= 5) {
+				return op(0x03 + value); // iconst
+			} else if (value <= Byte.MAX_VALUE) {
+				return op(0x10).op(value); // bipush
+			}
+			return op(0x11).u2(value); // sipush
+		}
+
+		static int pushLength(int value) {
+			return value <= 5 ? 1 : value <= Byte.MAX_VALUE ? 2 : 3;
+		}
+
+	}
+
+	/**
+	 * Defines generated classes. Its parent loads Flier, so they can see all
+	 * types they call.
+	 */
+	private static class Loader extends ClassLoader {
+
+		Loader() {
+			super(UsageCompiler.class.getClassLoader());
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+
+	}
+
+	/**
+	 * Evaluator calling everything through interfaces, used when generating
+	 * the class failed.
+	 */
+	private static class Plain implements UsageEvaluator {
+
+		private final Activator[] waiting;
+		private final Activator[] counting;
+		private final Action[] actions;
+
+		Plain(Activator[] waiting, Activator[] counting, Action[] actions) {
+			this.waiting = waiting;
+			this.counting = counting;
+			this.actions = actions;
+		}
+
+		@Override
+		public int waiting(InGamePlayer owner) {
+			for (int i = 0; i < waiting.length; i++) {
+				if (!waiting[i].isActive(owner, owner)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean counting(InGamePlayer owner) {
+			for (int i = 0; i < counting.length; i++) {
+				if (!counting[i].isActive(owner, owner)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public void act(InGamePlayer owner) {
+			for (int i = 0; i < actions.length; i++) {
+				actions[i].act(owner, owner);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.core;
+
+import pl.betoncraft.flier.api.core.InGamePlayer;
+
+/**
+ * Checks activators and runs actions of a single Usage. Implementations are
+ * generated by {@link UsageCompiler} for each combination of activator and
+ * action types, so every call inside them goes to a single known class. It's
+ * public only because generated classes are defined in their own class
+ * loader.
+ *
+ * @author Jakub Sapalski
+ */
+public interface UsageEvaluator {
+
+	/**
+	 * Checks the activators which are waiting for their dependencies.
+	 * 
+	 * @param owner
+	 *            the player using the item
+	 * @return the index of the first inactive activator or -1 if all of them
+	 *         are active
+	 */
+	public int waiting(InGamePlayer owner);
+
+	/**
+	 * Checks the remaining activators, in their original order.
+	 * 
+	 * @param owner
+	 *            the player using the item
+	 * @return whether all of them are active
+	 */
+	public boolean counting(InGamePlayer owner);
+
+	/**
+	 * Runs all actions.
+	 * 
+	 * @param owner
+	 *            the player using the item
+	 */
+	public void act(InGamePlayer owner);
+
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.database;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Folds old kills into daily summaries per player and per weapon and removes
+ * them from the kills table. Works in chunks, each one in a single transaction
+ * on a separate connection.
+ *
+ * @author Jakub Sapalski
+ */
+public class Compactor {
+
+	private final Database db;
+	private final Migrator migrator;
+	private final ConfigurationSection queries;
+
+	private Connection con;
+
+	public Compactor(Database db, Migrator migrator, ConfigurationSection queries) {
+		this.db = db;
+		this.migrator = migrator;
+		this.queries = queries.getConfigurationSection("compaction");
+	}
+
+	/**
+	 * Compacts a single chunk of kills older than the cutoff date.
+	 *
+	 * @param size
+	 *            maximum amount of kills compacted in this chunk
+	 * @param cutoff
+	 *            only kills older than this date are compacted
+	 * @return whether there may be more kills to compact
+	 */
+	public boolean compactChunk(int size, Timestamp cutoff) throws SQLException {
+		if (con == null) {
+			con = db.openSeparateConnection();
+			con.setAutoCommit(false);
+		}
+		Map<Day<ByteBuffer>, int[]> players = new HashMap<>();
+		Map<Day<Integer>, int[]> weapons = new HashMap<>();
+		long last = -1;
+		int count = 0;
+		try {
+			try (PreparedStatement select = con.prepareStatement(migrator.prepare(queries.getString("select")))) {
+				select.setTimestamp(1, cutoff);
+				select.setInt(2, size);
+				try (ResultSet rs = select.executeQuery()) {
+					while (rs.next()) {
+						count++;
+						last = rs.getLong("id");
+						LocalDate day = rs.getTimestamp("date").toLocalDateTime().toLocalDate();
+						byte[] killed = rs.getBytes("killed");
+						byte[] killer = rs.getBytes("killer");
+						int weapon = rs.getInt("weapon");
+						boolean hasWeapon = !rs.wasNull();
+						players.computeIfAbsent(new Day<>(day, ByteBuffer.wrap(killed)), k -> new int[2])[1]++;
+						if (killer != null) {
+							players.computeIfAbsent(new Day<>(day, ByteBuffer.wrap(killer)), k -> new int[2])[0]++;
+						}
+						if (hasWeapon) {
+							weapons.computeIfAbsent(new Day<>(day, weapon), k -> new int[1])[0]++;
+						}
+					}
+				}
+			}
+			if (count == 0) {
+				return false;
+			}
+			try (
+					PreparedStatement add = con.prepareStatement(migrator.prepare(queries.getString("add_player")));
+					PreparedStatement update = con.prepareStatement(migrator.prepare(queries.getString("update_player")))
+			) {
+				for (Entry<Day<ByteBuffer>, int[]> entry : players.entrySet()) {
+					Date day = Date.valueOf(entry.getKey().day);
+					byte[] player = entry.getKey().key.array();
+					add.setDate(1, day);
+					add.setBytes(2, player);
+					add.executeUpdate();
+					update.setInt(1, entry.getValue()[0]);
+					update.setInt(2, entry.getValue()[1]);
+					update.setDate(3, day);
+					update.setBytes(4, player);
+					update.executeUpdate();
+				}
+			}
+			try (
+					PreparedStatement add = con.prepareStatement(migrator.prepare(queries.getString("add_weapon")));
+					PreparedStatement update = con.prepareStatement(migrator.prepare(queries.getString("update_weapon")))
+			) {
+				for (Entry<Day<Integer>, int[]> entry : weapons.entrySet()) {
+					Date day = Date.valueOf(entry.getKey().day);
+					int weapon = entry.getKey().key;
+					add.setDate(1, day);
+					add.setInt(2, weapon);
+					add.executeUpdate();
+					update.setInt(1, entry.getValue()[0]);
+					update.setDate(2, day);
+					update.setInt(3, weapon);
+					update.executeUpdate();
+				}
+			}
+			try (PreparedStatement delete = con.prepareStatement(migrator.prepare(queries.getString("delete")))) {
+				delete.setLong(1, last);
+				delete.setTimestamp(2, cutoff);
+				delete.executeUpdate();
+			}
+			con.commit();
+			return count == size;
+		} catch (SQLException e) {
+			con.rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes the compaction connection if it's open.
+	 */
+	public void close() {
+		if (con != null) {
+			try {
+				con.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+			con = null;
+		}
+	}
+
+	/**
+	 * Key of a single daily summary row.
+	 */
+	private static class Day<T> {
+
+		private final LocalDate day;
+		private final T key;
+
+		private Day(LocalDate day, T key) {
+			this.day = day;
+			this.key = key;
+		}
+
+		@Override
+		public int hashCode() {
+			return day.hashCode() * 31 + key.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Day)) {
+				return false;
+			}
+			Day<?> other = (Day<?>) obj;
+			return day.equals(other.day) && key.equals(other.key);
+		}
+
+	}
+
+}
@@ -56,6 +56,13 @@ public abstract class Database {
 		update(query, query);
 	}
 
+	/**
+	 * @return whether there are queued updates waiting to be saved
+	 */
+	public boolean isSaving() {
+		return !this.saver.isIdle();
+	}
+
 	public ResultSet query(String name, Object[] args) throws SQLException {
 		PreparedStatement stmt = (PreparedStatement) this.statements.get(name);
 		for (int i = 0; i < args.length; i++) {
@@ -79,5 +86,18 @@ public abstract class Database {
 		return this.con;
 	}
 
+	/**
+	 * Opens a new connection, independent from the one used for regular
+	 * statements. Use it for long running jobs which need their own
+	 * transactions, and close it afterwards.
+	 */
+	public Connection openSeparateConnection() throws SQLException {
+		return openConnection();
+	}
+
+	public boolean isMySQL() {
+		return this instanceof MySQL;
+	}
+
 	protected abstract Connection openConnection() throws SQLException;
 }
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.database;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import pl.betoncraft.flier.api.content.Game.Attitude;
+import pl.betoncraft.flier.event.FlierPlayerKillEvent.KillType;
+
+/**
+ * Keeps the database schema up to date. Migrations are numbered lists of
+ * statements in the queries file, applied in order and recorded in the
+ * schema version table. A version which failed halfway is run again from the
+ * start, so its statements must be safe to repeat. Statements which can't be
+ * written that way may start with table names in square brackets, separated
+ * with commas, and then run only if these tables exist (or don't exist, if
+ * the name starts with an exclamation mark). Rows left in the old layout are converted in
+ * chunks with {@link #convertChunk(int)}.
+ *
+ * @author Jakub Sapalski
+ */
+public class Migrator {
+
+	private final Database db;
+	private final ConfigurationSection queries;
+	private final String prefix;
+
+	private Connection conversion;
+
+	public Migrator(Database db, ConfigurationSection queries, String prefix) {
+		this.db = db;
+		this.queries = queries;
+		this.prefix = prefix;
+	}
+
+	/**
+	 * Replaces the prefix placeholder in the query.
+	 */
+	public String prepare(String query) {
+		return query == null ? null : query.replace("{prefix}", prefix);
+	}
+
+	/**
+	 * Applies all migrations newer than the current schema version.
+	 *
+	 * @return the schema version after migrating
+	 * @throws SQLException
+	 *             when one of the migrations fails; versions applied before it
+	 *             stay recorded
+	 */
+	public int migrate() throws SQLException {
+		Connection con = db.getConnection();
+		ConfigurationSection schema = queries.getConfigurationSection("schema");
+		try (Statement stmt = con.createStatement()) {
+			stmt.execute(prepare(schema.getString("create")));
+		}
+		int version = 0;
+		try (Statement stmt = con.createStatement(); ResultSet rs = stmt.executeQuery(prepare(schema.getString("get")))) {
+			if (rs.next()) {
+				version = rs.getInt(1);
+			}
+		}
+		TreeMap<Integer, List<String>> migrations = new TreeMap<>();
+		ConfigurationSection section = queries.getConfigurationSection("migrations");
+		for (String key : section.getKeys(false)) {
+			migrations.put(Integer.parseInt(key), section.getStringList(key));
+		}
+		for (Integer number : migrations.tailMap(version, false).keySet()) {
+			for (String query : migrations.get(number)) {
+				query = prepare(query);
+				if (query.startsWith("[")) {
+					int end = query.indexOf(']');
+					if (!guard(con, query.substring(1, end))) {
+						continue;
+					}
+					query = query.substring(end + 1).trim();
+				}
+				try (Statement stmt = con.createStatement()) {
+					stmt.execute(query);
+				}
+			}
+			try (PreparedStatement stmt = con.prepareStatement(prepare(schema.getString("set")))) {
+				stmt.setInt(1, number);
+				stmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+				stmt.executeUpdate();
+			}
+			version = number;
+		}
+		return version;
+	}
+
+	/**
+	 * @return whether there are rows in the old layout waiting for conversion
+	 */
+	public boolean needsConversion() throws SQLException {
+		return tableExists(db.getConnection(), prepare("{prefix}legacy_kills"));
+	}
+
+	/**
+	 * Checks the table conditions of a guarded migration statement.
+	 */
+	private boolean guard(Connection con, String conditions) throws SQLException {
+		for (String condition : conditions.split(",")) {
+			condition = condition.trim();
+			boolean negated = condition.startsWith("!");
+			if (tableExists(con, negated ? condition.substring(1) : condition) == negated) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the table exists in the current database. The name is
+	 * escaped, since the metadata lookup treats it as a pattern.
+	 */
+	private boolean tableExists(Connection con, String table) throws SQLException {
+		DatabaseMetaData meta = con.getMetaData();
+		String escape = meta.getSearchStringEscape();
+		String pattern = table;
+		if (escape != null && !escape.isEmpty()) {
+			pattern = pattern.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+		}
+		try (ResultSet rs = meta.getTables(con.getCatalog(), null, pattern, null)) {
+			return rs.next();
+		}
+	}
+
+	/**
+	 * Moves a single chunk of old rows to the new layout in one transaction,
+	 * using a separate connection. Once there are no more rows, the old table
+	 * is dropped and the connection is closed.
+	 *
+	 * @param size
+	 *            maximum amount of rows converted in this chunk
+	 * @return whether there may be more rows to convert
+	 */
+	public boolean convertChunk(int size) throws SQLException {
+		if (conversion == null) {
+			conversion = db.openSeparateConnection();
+			conversion.setAutoCommit(false);
+		}
+		ConfigurationSection convert = queries.getConfigurationSection("conversion");
+		ConfigurationSection statements = queries.getConfigurationSection("statements");
+		try (
+				PreparedStatement select = conversion.prepareStatement(prepare(convert.getString("select")));
+				PreparedStatement addWeapon = conversion.prepareStatement(prepare(statements.getString("add_weapon")));
+				PreparedStatement addClass = conversion.prepareStatement(prepare(statements.getString("add_class")));
+				PreparedStatement addKill = conversion.prepareStatement(prepare(statements.getString("add_kill")));
+				PreparedStatement delete = conversion.prepareStatement(prepare(convert.getString("delete")))
+		) {
+			select.setInt(1, size);
+			long last = -1;
+			try (ResultSet rs = select.executeQuery()) {
+				while (rs.next()) {
+					last = rs.getLong("id");
+					String killedClass = rs.getString("killed_class");
+					String killer = rs.getString("killer");
+					String killerClass = rs.getString("killer_class");
+					String weapon = rs.getString("weapon");
+					addName(addClass, killedClass);
+					addName(addClass, killerClass);
+					addName(addWeapon, weapon);
+					addKill.setInt(1, rs.getInt("game"));
+					addKill.setBytes(2, toBytes(UUID.fromString(rs.getString("killed"))));
+					addKill.setString(3, killedClass);
+					addKill.setBytes(4, killer == null ? null : toBytes(UUID.fromString(killer)));
+					addKill.setString(5, killerClass);
+					addKill.setString(6, weapon);
+					addKill.setInt(7, KillType.valueOf(rs.getString("kill_type")).ordinal());
+					addKill.setInt(8, Attitude.valueOf(rs.getString("attitude")).ordinal());
+					addKill.setTimestamp(9, rs.getTimestamp("date"));
+					addKill.executeUpdate();
+				}
+			}
+			if (last < 0) {
+				try (Statement drop = conversion.createStatement()) {
+					drop.execute(prepare(convert.getString("drop")));
+				}
+				conversion.commit();
+				conversion.close();
+				conversion = null;
+				return false;
+			}
+			delete.setLong(1, last);
+			delete.executeUpdate();
+			conversion.commit();
+			return true;
+		} catch (SQLException | IllegalArgumentException e) {
+			conversion.rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes the conversion connection if it's still open.
+	 */
+	public void close() {
+		if (conversion != null) {
+			try {
+				conversion.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+			conversion = null;
+		}
+	}
+
+	private void addName(PreparedStatement stmt, String name) throws SQLException {
+		if (name != null) {
+			stmt.setString(1, name);
+			stmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Packs the UUID into 16 bytes, as stored in the database.
+	 */
+	public static byte[] toBytes(UUID uuid) {
+		return ByteBuffer.allocate(16)
+				.putLong(uuid.getMostSignificantBits())
+				.putLong(uuid.getLeastSignificantBits())
+				.array();
+	}
+
+}
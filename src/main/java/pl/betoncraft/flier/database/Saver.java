@@ -43,6 +43,10 @@ public class Saver extends Thread {
 		notify();
 	}
 
+	public boolean isIdle() {
+		return this.queue.isEmpty();
+	}
+
 	public synchronized void end() {
 		this.run = false;
 		notify();
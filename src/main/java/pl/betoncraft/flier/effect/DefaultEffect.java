@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.bukkit.Location;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 
@@ -38,6 +39,7 @@ import pl.betoncraft.flier.core.DefaultMatcher;
 import pl.betoncraft.flier.util.LangManager;
 import pl.betoncraft.flier.util.ValueLoader;
 import pl.betoncraft.flier.util.EffectListener.EventType;
+import pl.betoncraft.flier.util.EmissionBudget.Priority;
 
 /**
  * Default implementation of the Effect.
@@ -48,6 +50,9 @@ public abstract class DefaultEffect implements Effect {
 	
 	private static final String TYPE = "event_type";
 	private static final String MATCHERS = "matchers";
+	private static final String PRIORITY = "priority";
+	// size of the location bucket is 2^BUCKET_BITS blocks
+	private static final int BUCKET_BITS = 2;
 	
 	protected final String id;
 	protected final String name;
@@ -55,12 +60,14 @@ public abstract class DefaultEffect implements Effect {
 	
 	protected final EventType type;
 	protected final List<Matcher> matchers;
+	protected final Priority priority;
 	
 	public DefaultEffect(ConfigurationSection section) throws LoadingException {
 		id = section.getName();
 		loader = new ValueLoader(section);
 		name = loader.loadString("name", id);
 		type = loader.loadEnum(TYPE, EventType.class);
+		priority = loader.loadEnum(PRIORITY, defaultPriority(type), Priority.class);
 		ConfigurationSection values = section.getConfigurationSection(MATCHERS);
 		if (values != null) {
 			matchers = new ArrayList<>(values.getKeys(false).size());
@@ -130,6 +137,31 @@ public abstract class DefaultEffect implements Effect {
 		return matchers;
 	}
 	
+	/**
+	 * Effects of hits and kills are feedback for players, all others are
+	 * cosmetic.
+	 */
+	private static Priority defaultPriority(EventType type) {
+		switch (type) {
+		case HIT:
+		case GET_HIT:
+		case KILL:
+		case KILLED:
+			return Priority.FEEDBACK;
+		default:
+			return Priority.COSMETIC;
+		}
+	}
+	
+	/**
+	 * @return the key of a small area around the location, for merging
+	 *         effects which happen near each other
+	 */
+	protected static Object bucket(Location loc) {
+		return Arrays.asList(loc.getWorld(),
+				loc.getBlockX() >> BUCKET_BITS, loc.getBlockY() >> BUCKET_BITS, loc.getBlockZ() >> BUCKET_BITS);
+	}
+	
 	protected void playerOnly() throws LoadingException {
 		if (!type.isPlayerInvolved()) {
 			throw new LoadingException("This effect requires the player, but the chosen event type does not involve any particular player.");
@@ -27,8 +27,10 @@ import java.util.Optional;
 
 import org.bukkit.configuration.ConfigurationSection;
 
+import pl.betoncraft.flier.api.content.Game;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
+import pl.betoncraft.flier.util.EmissionBudget;
 
 /**
  * Plays a sound to every player in the Game.
@@ -45,9 +47,31 @@ public class GameSoundEffect extends SoundEffect {
 	}
 
 	@Override
-	public void fire(Optional<InGamePlayer> player) {
-		player.get().getGame().getPlayers().values().forEach(
-				p -> p.getPlayer().getWorld().playSound(p.getPlayer().getLocation(), sound, volume, pitch));
+	public void fire(Optional<InGamePlayer> player, int times) {
+		InGamePlayer emitter = player.get();
+		Game game = emitter.getGame();
+		// one packet per player in the game, the emitter hears it first
+		int granted = EmissionBudget.sounds(game, emitter, priority, game.getPlayers().size());
+		if (granted <= 0) {
+			return;
+		}
+		float volume = volume(times);
+		emitter.getPlayer().playSound(emitter.getPlayer().getLocation(), sound, volume, pitch);
+		granted--;
+		for (InGamePlayer p : game.getPlayers().values()) {
+			if (granted <= 0) {
+				break;
+			}
+			if (p != emitter) {
+				p.getPlayer().playSound(p.getPlayer().getLocation(), sound, volume, pitch);
+				granted--;
+			}
+		}
+	}
+
+	@Override
+	public Object getMergeKey(Optional<InGamePlayer> player) {
+		return player.get().getGame();
 	}
 
 }
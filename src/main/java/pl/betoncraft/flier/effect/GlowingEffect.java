@@ -26,11 +26,11 @@ package pl.betoncraft.flier.effect;
 import java.util.Optional;
 
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
+import pl.betoncraft.flier.util.TimingWheel;
+import pl.betoncraft.flier.util.TimingWheel.Timer;
 
 /**
  * Makes the player glow for a specified time. 
@@ -42,16 +42,14 @@ public class GlowingEffect extends DefaultEffect {
 	private static final String TIME = "time";
 
 	private final int time;
-	private final Flier plugin;
 
-	private BukkitRunnable canceler;
+	private Timer canceler;
 
 	public GlowingEffect(ConfigurationSection section) throws LoadingException {
 		super(section);
 		if (!type.isPlayerInvolved()) {
 			throw new LoadingException("Game sound effect cannot be run on a non-player event.");
 		}
-		plugin = Flier.getInstance();
 		time = loader.loadPositiveInt(TIME);
 	}
 
@@ -60,19 +58,20 @@ public class GlowingEffect extends DefaultEffect {
 		if (canceler != null) {
 			canceler.cancel();
 		}
-		canceler = new BukkitRunnable() {
-			@Override
-			public void run() {
-				if (player.get().getPlayer().isGlowing()) {
-					player.get().getPlayer().setGlowing(false);
-				}
-				canceler = null;
+		canceler = TimingWheel.schedule(time, player.get(), () -> {
+			if (player.get().getPlayer().isGlowing()) {
+				player.get().getPlayer().setGlowing(false);
 			}
-		};
-		canceler.runTaskLater(plugin, time);
+			canceler = null;
+		});
 		if (!player.get().getPlayer().isGlowing()) {
 			player.get().getPlayer().setGlowing(true);
 		}
 	}
 
+	@Override
+	public Object getMergeKey(Optional<InGamePlayer> player) {
+		return player.get();
+	}
+
 }
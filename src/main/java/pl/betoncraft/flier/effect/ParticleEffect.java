@@ -32,6 +32,7 @@ import org.bukkit.configuration.ConfigurationSection;
 
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
+import pl.betoncraft.flier.util.EmissionBudget;
 
 /**
  * Creates an explosion without damage at player's location.
@@ -90,7 +91,12 @@ public class ParticleEffect extends DefaultEffect {
 
 	@Override
 	public void fire(Optional<InGamePlayer> player) {
+		int viewers = Math.max(1, player.get().getPlayer().getWorld().getPlayers().size());
+		// each spawn is a broadcast to the whole world, charged separately
 		for (int i = 0; i < count; i++) {
+			if (!EmissionBudget.particle(player.get().getGame(), player.get(), priority, viewers)) {
+				break;
+			}
 			Location loc = player.get().getLocation();
 			loc.add(manualOffsetX * random.nextGaussian(),
 					manualOffsetY * random.nextGaussian(),
@@ -99,4 +105,9 @@ public class ParticleEffect extends DefaultEffect {
 		}
 	}
 
+	@Override
+	public Object getMergeKey(Optional<InGamePlayer> player) {
+		return bucket(player.get().getLocation());
+	}
+
 }
@@ -29,6 +29,7 @@ import org.bukkit.configuration.ConfigurationSection;
 
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
+import pl.betoncraft.flier.util.EmissionBudget;
 
 /**
  * Plays a sound to a single player.
@@ -45,8 +46,16 @@ public class PrivateSoundEffect extends SoundEffect {
 	}
 
 	@Override
-	public void fire(Optional<InGamePlayer> player) {
-		player.get().getPlayer().playSound(player.get().getLocation(), sound, volume, pitch);
+	public void fire(Optional<InGamePlayer> player, int times) {
+		if (!EmissionBudget.sound(player.get().getGame(), player.get(), priority, 1)) {
+			return;
+		}
+		player.get().getPlayer().playSound(player.get().getLocation(), sound, volume(times), pitch);
+	}
+
+	@Override
+	public Object getMergeKey(Optional<InGamePlayer> player) {
+		return player.get();
 	}
 
 }
@@ -29,6 +29,7 @@ import org.bukkit.configuration.ConfigurationSection;
 
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
+import pl.betoncraft.flier.util.EmissionBudget;
 
 /**
  * Plays a sound in the world.
@@ -45,8 +46,17 @@ public class PublicSoundEffect extends SoundEffect {
 	}
 
 	@Override
-	public void fire(Optional<InGamePlayer> player) {
-		player.get().getPlayer().getWorld().playSound(player.get().getLocation(), sound, volume, pitch);
+	public void fire(Optional<InGamePlayer> player, int times) {
+		int packets = player.get().getPlayer().getWorld().getPlayers().size();
+		if (!EmissionBudget.sound(player.get().getGame(), player.get(), priority, packets)) {
+			return;
+		}
+		player.get().getPlayer().getWorld().playSound(player.get().getLocation(), sound, volume(times), pitch);
+	}
+
+	@Override
+	public Object getMergeKey(Optional<InGamePlayer> player) {
+		return bucket(player.get().getLocation());
 	}
 
 }
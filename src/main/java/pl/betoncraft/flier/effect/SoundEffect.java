@@ -23,9 +23,12 @@
  */
 package pl.betoncraft.flier.effect;
 
+import java.util.Optional;
+
 import org.bukkit.Sound;
 import org.bukkit.configuration.ConfigurationSection;
 
+import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 
 /**
@@ -38,10 +41,12 @@ public abstract class SoundEffect extends DefaultEffect {
 	private static final String SOUND = "sound";
 	private static final String VOLUME = "volume";
 	private static final String PITCH = "pitch";
+	private static final String INTENSITY = "intensity";
 	
 	protected Sound sound;
 	protected float volume;
 	protected float pitch;
+	protected float intensity;
 
 	public SoundEffect(ConfigurationSection section) throws LoadingException {
 		super(section);
@@ -49,6 +54,21 @@ public abstract class SoundEffect extends DefaultEffect {
 		sound = loader.loadEnum(SOUND, Sound.class);
 		volume = (float) loader.loadPositiveDouble(VOLUME, 1.0);
 		pitch = (float) loader.loadPositiveDouble(PITCH, 1.0);
+		intensity = (float) loader.loadNonNegativeDouble(INTENSITY, 0.0);
+	}
+
+	@Override
+	public void fire(Optional<InGamePlayer> player) {
+		fire(player, 1);
+	}
+	
+	/**
+	 * @param times
+	 *            the amount of merged invocations
+	 * @return the volume of the merged sound
+	 */
+	protected float volume(int times) {
+		return volume * (1 + intensity * (times - 1));
 	}
 
 }
@@ -42,6 +42,7 @@ import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 
 import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Lobby;
+import pl.betoncraft.flier.api.core.Arena;
 import pl.betoncraft.flier.api.core.Attacker;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
@@ -95,6 +96,34 @@ public class DeathMatchGame extends DefaultGame {
 		}
 	}
 	
+	/**
+	 * Checks the settings the same way the constructor does, without creating
+	 * the Game.
+	 * 
+	 * @see DefaultGame#validate(ConfigurationSection, Lobby)
+	 */
+	public static List<Arena> validate(ConfigurationSection section, Lobby lobby)
+			throws LoadingException, NoArenaException {
+		List<Arena> arenas = DefaultGame.validate(section, lobby);
+		ValueLoader loader = new ValueLoader(section);
+		loader.loadInt("suicide_score", 0);
+		loader.loadInt("kill_score", 1);
+		loader.loadPositiveInt("points_to_win");
+		for (String color : section.getStringList("colors")) {
+			try {
+				ChatColor.valueOf(color.toUpperCase().replace(' ', '_'));
+			} catch (IllegalArgumentException e) {
+				throw new LoadingException(String.format("Color '%s' does not exist.", color));
+			}
+		}
+		for (Arena arena : arenas) {
+			if (arena.getLocationSet(section.getString("spawns")).getMultiple().length == 0) {
+				throw new LoadingException("Spawn list cannot be empty");
+			}
+		}
+		return arenas;
+	}
+	
 	private class ScoreLine implements SidebarLine {
 		
 		private UUID uuid;
@@ -175,6 +204,21 @@ public class DeathMatchGame extends DefaultGame {
 		super.removePlayer(player);
 		colors.remove(player.getName());
 		scores.remove(player.getUniqueId());
+		for (InGamePlayer p : dataMap.values()) {
+			p.updateColor(player.getName(), null);
+		}
+	}
+	
+	@Override
+	public boolean reset() {
+		if (!super.reset()) {
+			return false;
+		}
+		scores.clear();
+		colors.clear();
+		spawnCounter = 0;
+		colorCounter = 0;
+		return true;
 	}
 
 	@Override
@@ -194,23 +238,16 @@ public class DeathMatchGame extends DefaultGame {
 		InGamePlayer killer = attacker == null ? null : attacker.getCreator();
 		if (rounds) {
 			// kills in rounded games don't increase points
-			// we should check if there are any other players alive
-			// and increase points if the round is finished
-			List<UUID> alivePlayers = dataMap.values().stream()
-					// filter teams which still have alive players
-					.filter(player -> !player.equals(killed) && player.isPlaying())
-					.map(player -> player.getPlayer().getUniqueId())
-					.collect(Collectors.toList());
-			if (alivePlayers.size() == 1) {
-				UUID winner = alivePlayers.get(0);
-				score(dataMap.get(winner), 1);
-				alivePlayers.stream()
-						.map(uuid -> dataMap.get(uuid))
-						.forEach(player -> moveToWaitingRoom(player));
+			// the killed player is already dead, so if there's only one
+			// player alive the round is finished
+			if (alive.size() == 1) {
+				InGamePlayer winner = alive.iterator().next();
+				score(winner, 1);
+				moveToWaitingRoom(winner);
 			}
 			// this is for test games where only one player is playing
-			if (alivePlayers.size() <= 1) {
-				waitingRoom.finishRound();
+			if (alive.size() <= 1) {
+				finishRound();
 			}
 		} else {
 			// kills in continuous games increase points
@@ -244,8 +281,13 @@ public class DeathMatchGame extends DefaultGame {
 			scores.put(player.getPlayer().getUniqueId(), 0);
 			player.getLines().add(new ScoreLine(player));
 			player.getLines().add(new BestScoreLine(player));
+			// the new player needs all colors, others only the new one
 			for (InGamePlayer p : dataMap.values()) {
-				p.updateColors(getColors());
+				if (p.equals(player)) {
+					p.updateColors(getColors());
+				} else {
+					p.updateColor(player.getPlayer().getName(), color);
+				}
 			}
 		}
 		player.getPlayer().teleport(locations.get(spawnCounter++ % locations.size()));
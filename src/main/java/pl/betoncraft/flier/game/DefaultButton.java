@@ -37,6 +37,7 @@ import org.bukkit.permissions.Permission;
 
 import pl.betoncraft.flier.api.content.Button;
 import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.Arena;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.SetApplier;
 import pl.betoncraft.flier.core.DefaultSetApplier;
@@ -59,11 +60,19 @@ public class DefaultButton implements Button {
 	protected final SetApplier onUnlock;
 
 	public DefaultButton(Game game, ConfigurationSection section) throws LoadingException {
+		this(game, game.getArena(), section);
+	}
+	
+	/**
+	 * Loads the button using locations from the specified Arena. The Game
+	 * can be null if the button is only checked for errors.
+	 */
+	DefaultButton(Game game, Arena arena, ConfigurationSection section) throws LoadingException {
 		this.game = game;
 		id = section.getName();
 		ValueLoader loader = new ValueLoader(section);
 		name = loader.loadString("name", id);
-		locations = Arrays.asList(game.getArena().getLocationSet(section.getString("blocks")).getMultiple());
+		locations = Arrays.asList(arena.getLocationSet(section.getString("blocks")).getMultiple());
 		if (locations.isEmpty()) {
 			throw new LoadingException("Blocks must be specified.");
 		}
@@ -122,6 +131,9 @@ public class DefaultButton implements Button {
 						location.getBlockZ()
 				))
 		);
+		if (game instanceof DefaultGame) {
+			((DefaultGame) game).indexButtons();
+		}
 	}
 	
 	@Override
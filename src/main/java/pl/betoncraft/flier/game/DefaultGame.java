@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -40,7 +41,6 @@ import java.util.UUID;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Sound;
-import org.bukkit.block.Block;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
@@ -52,7 +52,6 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
-import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
@@ -77,6 +76,7 @@ import pl.betoncraft.flier.api.core.SetApplier;
 import pl.betoncraft.flier.api.core.Target;
 import pl.betoncraft.flier.core.DefaultKit;
 import pl.betoncraft.flier.core.DefaultPlayer;
+import pl.betoncraft.flier.core.DefaultSetApplier;
 import pl.betoncraft.flier.event.FlierClickButtonEvent;
 import pl.betoncraft.flier.event.FlierGameCreateEvent;
 import pl.betoncraft.flier.event.FlierGameEndEvent;
@@ -84,6 +84,7 @@ import pl.betoncraft.flier.event.FlierGameEndEvent.GameEndCause;
 import pl.betoncraft.flier.event.FlierGameStartEvent;
 import pl.betoncraft.flier.event.FlierPlayerKillEvent;
 import pl.betoncraft.flier.event.FlierPlayerKillEvent.KillType;
+import pl.betoncraft.flier.event.FlierRoundEndEvent;
 import pl.betoncraft.flier.game.WaitingRoom.WaitReason;
 import pl.betoncraft.flier.sidebar.Altitude;
 import pl.betoncraft.flier.sidebar.Ammo;
@@ -92,10 +93,13 @@ import pl.betoncraft.flier.sidebar.Health;
 import pl.betoncraft.flier.sidebar.Money;
 import pl.betoncraft.flier.sidebar.Speed;
 import pl.betoncraft.flier.sidebar.Time;
+import pl.betoncraft.flier.util.BlockIndex;
 import pl.betoncraft.flier.util.DoubleClickBlocker;
 import pl.betoncraft.flier.util.DummyPlayer;
 import pl.betoncraft.flier.util.EffectListener;
+import pl.betoncraft.flier.util.Heightmap;
 import pl.betoncraft.flier.util.LangManager;
+import pl.betoncraft.flier.util.TimingWheel;
 import pl.betoncraft.flier.util.Utils;
 import pl.betoncraft.flier.util.ValueLoader;
 
@@ -145,13 +149,14 @@ public abstract class DefaultGame implements Listener, Game {
 
 	protected final String id;
 	protected final String name;
-	protected final int uniqueNumber = new Random().nextInt(Integer.MAX_VALUE);
+	protected int uniqueNumber = new Random().nextInt(Integer.MAX_VALUE);
 	protected final ValueLoader loader;
 	protected GameHeartBeat heartBeat;
 	protected WaitingRoom waitingRoom;
 	
 	protected final Map<UUID, InGamePlayer> dataMap = new HashMap<>();
 	protected final Map<UUID, Target> targets = new HashMap<>();
+	protected final Set<InGamePlayer> alive = new HashSet<>();
 	protected final FancyStuffWrapper fancyStuff;
 	protected final EffectListener listener;
 	protected final List<Bonus> bonuses = new ArrayList<>();
@@ -177,9 +182,11 @@ public abstract class DefaultGame implements Listener, Game {
 	protected Arena arena;
 	protected boolean running = false;
 	protected int timeLeft;
-	protected List<Block> leaveBlocks = new ArrayList<>();
+	protected BlockIndex<Boolean> leaveBlocks = new BlockIndex<>();
+	protected BlockIndex<Button> buttonBlocks = new BlockIndex<>();
 	protected Location center;
 	protected int minX, minZ, maxX, maxZ;
+	protected Heightmap heightmap;
 	
 	public DefaultGame(ConfigurationSection section, Lobby lobby) throws LoadingException, NoArenaException {
 		
@@ -212,10 +219,11 @@ public abstract class DefaultGame implements Listener, Game {
 		maxX = center.getBlockX() + radius;
 		minZ = center.getBlockZ() - radius;
 		maxZ = center.getBlockZ() + radius;
+		heightmap = new Heightmap(center.getWorld(), minX, minZ, maxX, maxZ);
 		
 		// load "leave" blocks
 		for (Location loc : arena.getLocationSet(loader.loadString(LEAVE_BLOCKS)).getMultiple()) {
-			leaveBlocks.add(loc.getBlock());
+			leaveBlocks.put(loc, true);
 		}
 		
 		// load other stuffs
@@ -247,6 +255,7 @@ public abstract class DefaultGame implements Listener, Game {
 						String.format("Error in '%s' button.", button)).initCause(e);
 			}
 		}
+		indexButtons();
 		
 		// default kit
 		try {
@@ -277,6 +286,144 @@ public abstract class DefaultGame implements Listener, Game {
 		}
 	}
 	
+	/**
+	 * Checks the settings the same way the constructor does, but without
+	 * claiming an Arena, registering listeners, starting tasks or firing
+	 * events. Unlike the constructor it checks all viable Arenas of the Lobby,
+	 * since the Game can be created in any of them later.
+	 * 
+	 * @param section
+	 *            settings of the Game
+	 * @param lobby
+	 *            Lobby in which the Game would be created
+	 * @return the viable Arenas
+	 * @throws LoadingException
+	 *             when the Game could not be created due to an error
+	 * @throws NoArenaException
+	 *             when the Lobby has no viable Arenas for this Game
+	 */
+	public static List<Arena> validate(ConfigurationSection section, Lobby lobby)
+			throws LoadingException, NoArenaException {
+		
+		Flier flier = Flier.getInstance();
+		ValueLoader loader = new ValueLoader(section);
+		
+		// check arenas
+		List<String> viableArenas = section.getStringList(VIABLE_ARENAS);
+		if (viableArenas.isEmpty()) {
+			throw new LoadingException("No viable arenas are specified.");
+		}
+		List<Arena> arenas = new ArrayList<>();
+		for (Entry<String, Arena> entry : lobby.getArenas().entrySet()) {
+			if (viableArenas.contains(entry.getKey())) {
+				arenas.add(entry.getValue());
+			}
+		}
+		if (arenas.isEmpty()) {
+			throw new NoArenaException();
+		}
+		
+		// check locations in every arena
+		String centerName = loader.loadString(CENTER);
+		loader.loadPositiveInt(RADIUS);
+		String leaveName = loader.loadString(LEAVE_BLOCKS);
+		for (Arena arena : arenas) {
+			arena.getLocationSet(centerName);
+			arena.getLocationSet(leaveName);
+		}
+		
+		// check other stuffs
+		for (String effectName : section.getStringList(EFFECTS)) {
+			try {
+				flier.getEffect(effectName);
+			} catch (LoadingException e) {
+				throw (LoadingException) new LoadingException(String.format("Error in '%s' effect.", effectName))
+						.initCause(e);
+			}
+		}
+		loader.loadBoolean(ROUNDS);
+		loader.loadNonNegativeInt(MAX_PLAYERS, 0);
+		loader.loadNonNegativeInt(MAX_TIME, 0);
+		loader.loadEnum(RESPAWN_ACTION, RespawnAction.class);
+		WaitingRoom.validate(loader, arenas);
+		
+		// bonuses can't be created without a game, check their type and actions
+		for (String bonusName : section.getStringList(BONUSES)) {
+			ConfigurationSection bonusSection = flier.getConfigManager().getBonuses().getConfigurationSection(bonusName);
+			try {
+				if (bonusSection == null || bonusSection.getKeys(false).size() == 0) {
+					throw new LoadingException(String.format("Bonus with ID '%s' does not exist.", bonusName));
+				}
+				String type = bonusSection.getString("type");
+				if (type == null) {
+					throw new LoadingException("Type is not defined.");
+				}
+				if (flier.getBonusFactory(type) == null) {
+					throw new LoadingException(String.format("Bonus type '%s' does not exist.", type));
+				}
+				for (String actionName : bonusSection.getStringList("actions")) {
+					flier.getAction(actionName, Optional.empty());
+				}
+			} catch (LoadingException e) {
+				throw (LoadingException) new LoadingException(String.format("Error in '%s' bonus.", bonusName))
+						.initCause(e);
+			}
+		}
+		
+		// buttons
+		ConfigurationSection buttonsSection = section.getConfigurationSection(BUTTONS);
+		if (buttonsSection != null) for (String button : buttonsSection.getKeys(false)) {
+			ConfigurationSection buttonSection = buttonsSection.getConfigurationSection(button);
+			if (buttonSection == null) {
+				throw new LoadingException(String.format("'%s' is not a button.", button));
+			}
+			try {
+				for (Arena arena : arenas) {
+					new DefaultButton(null, arena, buttonSection);
+				}
+			} catch (LoadingException e) {
+				throw (LoadingException) new LoadingException(
+						String.format("Error in '%s' button.", button)).initCause(e);
+			}
+		}
+		
+		// default kit
+		try {
+			for (String set : section.getStringList(DEFAULT_KIT)) {
+				new DefaultSetApplier(set);
+			}
+		} catch (LoadingException e) {
+			throw (LoadingException) new LoadingException("Error in default kit.").initCause(e);
+		}
+		
+		// money
+		loader.loadBoolean(MONEY_ENABLED, false);
+		loader.loadInt(MONEY_ENEMY_KILL, 0);
+		loader.loadInt(MONEY_ENEMY_HIT, 0);
+		loader.loadInt(MONEY_FRIENDLY_KILL, 0);
+		loader.loadInt(MONEY_FRIENDLY_HIT, 0);
+		loader.loadInt(MONEY_BY_ENEMY_DEATH, 0);
+		loader.loadInt(MONEY_BY_ENEMY_HIT, 0);
+		loader.loadInt(MONEY_BY_FRIENDLY_DEATH, 0);
+		loader.loadInt(MONEY_BY_FRIENDLY_HIT, 0);
+		loader.loadInt(MONEY_SUICIDE, 0);
+		
+		return arenas;
+	}
+	
+	/**
+	 * Puts blocks of all buttons into the index used when clicking. It needs
+	 * to be called again when the button locations change.
+	 */
+	protected void indexButtons() {
+		buttonBlocks.clear();
+		for (Button button : buttons.values()) {
+			for (Location loc : button.getLocations()) {
+				buttonBlocks.put(loc, button);
+			}
+		}
+	}
+	
 	protected class GameHeartBeat extends BukkitRunnable {
 		
 		private int tickCounter = 0;
@@ -328,8 +475,13 @@ public abstract class DefaultGame implements Listener, Game {
 		dataMap.values().forEach(player -> LangManager.sendMessage(player, "game_ends"));
 		// end game
 		int delay = waitingRoom.respawnDelay == 0 ? 20 * 10 : waitingRoom.respawnDelay;
-		Bukkit.getScheduler().scheduleSyncDelayedTask(Flier.getInstance(),
-				() -> lobby.endGame(this, GameEndCause.FINISHED), delay);
+		int match = uniqueNumber;
+		TimingWheel.schedule(delay, () -> {
+			// don't end the next match if this game was ended and reused before
+			if (match == uniqueNumber) {
+				lobby.endGame(this, GameEndCause.FINISHED);
+			}
+		}, delay);
 	}
 	
 	@Override
@@ -420,6 +572,7 @@ public abstract class DefaultGame implements Listener, Game {
 		}
 		targets.remove(player.getUniqueId());
 		unlocked.remove(data);
+		setAlive(data, false);
 		waitingRoom.removePlayer(data);
 		Flier.getInstance().playerLeavesGame(data);
 		data.clearPlayer();
@@ -480,6 +633,30 @@ public abstract class DefaultGame implements Listener, Game {
 		listener.stop();
 	}
 	
+	@Override
+	public boolean reset() {
+		if (arena.isUsed()) {
+			return false;
+		}
+		arena.setUsed(true);
+		uniqueNumber = new Random().nextInt(Integer.MAX_VALUE);
+		running = false;
+		heartBeat = null;
+		timeLeft = maxTime;
+		dataMap.clear();
+		targets.clear();
+		unlocked.clear();
+		alive.clear();
+		waitingRoom.reset();
+		listener.start();
+		Bukkit.getPluginManager().registerEvents(this, Flier.getInstance());
+		if (lobby.isOpen()) {
+			FlierGameCreateEvent event = new FlierGameCreateEvent(this);
+			Bukkit.getPluginManager().callEvent(event);
+		}
+		return true;
+	}
+	
 	@Override
 	public boolean isRunning() {
 		return running;
@@ -492,6 +669,7 @@ public abstract class DefaultGame implements Listener, Game {
 	
 	@Override
 	public void handleKill(InGamePlayer killed, DamageCause cause) {
+		setAlive(killed, false);
 		Attacker attacker = killed.getAttacker();
 		InGamePlayer killer = attacker == null ? null : attacker.getCreator();
 		boolean fall = cause == DamageCause.FALL;
@@ -524,10 +702,15 @@ public abstract class DefaultGame implements Listener, Game {
 	}
 	
 	protected void moveToWaitingRoom(InGamePlayer player) {
-		Bukkit.getScheduler().scheduleSyncDelayedTask(Flier.getInstance(), () -> {
+		TimingWheel.schedule(1, player, () -> {
+			// the player could have left or the game could have been reset in the meantime
+			if (dataMap.get(player.getPlayer().getUniqueId()) != player) {
+				return;
+			}
 			Utils.clearPlayer(player.getPlayer());
 			player.setAttacker(null);
 			player.setPlaying(false);
+			setAlive(player, false);
 			Kit kit = player.getKit();
 			kit.onRespawn();
 			player.updateKit();
@@ -536,6 +719,30 @@ public abstract class DefaultGame implements Listener, Game {
 		});
 	}
 	
+	/**
+	 * Marks the player as alive or dead in the current round. Players are
+	 * alive from their respawn until they die, leave the game or are moved
+	 * to the waiting room.
+	 * 
+	 * @param player
+	 *            the player
+	 * @param isAlive
+	 *            whenever the player is alive
+	 * @return whenever the state of the player has changed
+	 */
+	protected boolean setAlive(InGamePlayer player, boolean isAlive) {
+		return isAlive ? alive.add(player) : alive.remove(player);
+	}
+	
+	/**
+	 * Finishes the current round and fires an event about it.
+	 */
+	protected void finishRound() {
+		waitingRoom.finishRound();
+		FlierRoundEndEvent event = new FlierRoundEndEvent(this, alive.size());
+		Bukkit.getPluginManager().callEvent(event);
+	}
+	
 	@Override
 	public void handleHit(Target attacked, Attacker attacker) {
 		InGamePlayer creator = attacker.getCreator();
@@ -557,13 +764,9 @@ public abstract class DefaultGame implements Listener, Game {
 	
 	@Override
 	public void handleRespawn(InGamePlayer player) {
+		setAlive(player, true);
 		player.getPlayer().getInventory().setHeldItemSlot(0);
-		new BukkitRunnable() {
-			@Override
-			public void run() {
-				player.setPlaying(true);
-			}
-		}.runTaskLater(Flier.getInstance(), 20);
+		TimingWheel.schedule(20, player, () -> player.setPlaying(true));
 		LangManager.sendMessage(player, "no_waiting");
 		// spawn event must be called after teleportation
 	}
@@ -704,6 +907,11 @@ public abstract class DefaultGame implements Listener, Game {
 		return arena;
 	}
 	
+	@Override
+	public Heightmap getHeightmap() {
+		return heightmap;
+	}
+	
 	@Override
 	public int getMaxPlayers() {
 		return maxPlayers;
@@ -733,13 +941,7 @@ public abstract class DefaultGame implements Listener, Game {
 					DoubleClickBlocker.block(event.getPlayer());
 				}
 				// apply the button
-				Button button = buttons.values().stream()
-						.filter(b -> b.getLocations().stream()
-								.map(loc -> loc.getBlock())
-								.anyMatch(block -> event.getClickedBlock().equals(block))
-						)
-						.findFirst()
-						.orElse(null);
+				Button button = buttonBlocks.get(event.getClickedBlock());
 				if (button != null) {
 					FlierClickButtonEvent e = new FlierClickButtonEvent(data, button);
 					Bukkit.getPluginManager().callEvent(e);
@@ -810,13 +1012,6 @@ public abstract class DefaultGame implements Listener, Game {
 		}
 	}
 	
-	@EventHandler
-	public void onBlockExplode(EntityExplodeEvent event) {
-		if (Attacker.getAttacker(event.getEntity()) != null) {
-			event.blockList().clear();
-		}
-	}
-	
 	@EventHandler
 	public void onInvInteract(InventoryClickEvent event) {
 		if (getPlayers().containsKey(event.getWhoClicked().getUniqueId())) {
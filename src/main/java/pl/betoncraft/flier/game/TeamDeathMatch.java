@@ -44,6 +44,7 @@ import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 
 import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Lobby;
+import pl.betoncraft.flier.api.core.Arena;
 import pl.betoncraft.flier.api.core.Attacker;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
@@ -63,6 +64,8 @@ import pl.betoncraft.flier.util.ValueLoader;
 public class TeamDeathMatch extends DefaultGame {
 	
 	protected final Map<String, SimpleTeam> teams = new HashMap<>();
+	private final SimpleTeam neutral = new SimpleTeam();
+	protected final Attitude[][] attitudes;
 	protected final Map<UUID, SimpleTeam> players = new HashMap<>();
 	
 	protected final int suicideScore;
@@ -72,6 +75,7 @@ public class TeamDeathMatch extends DefaultGame {
 	protected final int pointsToWin;
 	protected final boolean equalTeams;
 	protected final LinkedList<InGamePlayer> queue = new LinkedList<>();
+	protected int aliveTeams = 0;
 	
 	public TeamDeathMatch(ConfigurationSection section, Lobby lobby) throws LoadingException, NoArenaException {
 		super(section, lobby);
@@ -83,7 +87,7 @@ public class TeamDeathMatch extends DefaultGame {
 		ConfigurationSection teamConfig = section.getConfigurationSection("teams");
 		if (teamConfig != null) for (String teamID : teamConfig.getKeys(false)) {
 			try {
-				SimpleTeam team = new SimpleTeam(teamConfig.getConfigurationSection(teamID));
+				SimpleTeam team = new SimpleTeam(teamConfig.getConfigurationSection(teamID), teams.size() + 1);
 				teams.put(teamID, team);
 			} catch (LoadingException e) {
 				throw (LoadingException) new LoadingException(String.format("Error in '%s' team.", teamID)).initCause(e);
@@ -92,6 +96,66 @@ public class TeamDeathMatch extends DefaultGame {
 		if (teams.isEmpty()) {
 			throw new LoadingException("Teams must be defined.");
 		}
+		// precompute attitudes between teams, index 0 is for targets without a team
+		SimpleTeam[] indexed = new SimpleTeam[teams.size() + 1];
+		indexed[0] = neutral;
+		for (SimpleTeam team : teams.values()) {
+			indexed[team.index] = team;
+		}
+		attitudes = new Attitude[indexed.length][indexed.length];
+		for (SimpleTeam a : indexed) {
+			for (SimpleTeam b : indexed) {
+				Attitude attitude;
+				if (a == neutral || b == neutral) {
+					attitude = Attitude.HOSTILE;
+				} else if (a == b) {
+					attitude = Attitude.FRIENDLY;
+				} else if (a.isNeutral || b.isNeutral) {
+					attitude = Attitude.NEUTRAL;
+				} else {
+					attitude = Attitude.HOSTILE;
+				}
+				attitudes[a.index][b.index] = attitude;
+			}
+		}
+	}
+	
+	/**
+	 * Checks the settings the same way the constructor does, without creating
+	 * the Game.
+	 * 
+	 * @see DefaultGame#validate(ConfigurationSection, Lobby)
+	 */
+	public static List<Arena> validate(ConfigurationSection section, Lobby lobby)
+			throws LoadingException, NoArenaException {
+		List<Arena> arenas = DefaultGame.validate(section, lobby);
+		ValueLoader loader = new ValueLoader(section);
+		loader.loadBoolean("equal_teams", false);
+		loader.loadInt("suicide_score", 0);
+		loader.loadInt("friendly_kill_score", 0);
+		loader.loadInt("enemy_kill_score", 1);
+		loader.loadPositiveInt("points_to_win");
+		ConfigurationSection teamConfig = section.getConfigurationSection("teams");
+		if (teamConfig == null || teamConfig.getKeys(false).isEmpty()) {
+			throw new LoadingException("Teams must be defined.");
+		}
+		for (String teamID : teamConfig.getKeys(false)) {
+			try {
+				ConfigurationSection team = teamConfig.getConfigurationSection(teamID);
+				ValueLoader teamLoader = new ValueLoader(team);
+				teamLoader.loadEnum("color", ChatColor.class);
+				teamLoader.loadBoolean("neutral", false);
+				String name = ChatColor.translateAlternateColorCodes('&', teamLoader.loadString("name"));
+				for (Arena arena : arenas) {
+					if (arena.getLocationSet(team.getString("spawns")).getMultiple().length == 0) {
+						throw new LoadingException(String.format("Spawn list for team %s is empty.", name));
+					}
+				}
+			} catch (LoadingException e) {
+				throw (LoadingException) new LoadingException(String.format("Error in '%s' team.", teamID)).initCause(e);
+			}
+		}
+		return arenas;
 	}
 	
 	private class SimpleTeam {
@@ -100,11 +164,16 @@ public class TeamDeathMatch extends DefaultGame {
 		private String name;
 		private List<Location> spawns = new ArrayList<>();
 		private int spawnCounter = 0;
+		private int alive = 0;
 		private ChatColor color;
+		private int index = 0;
+		private boolean isNeutral = false;
 		
-		public SimpleTeam(ConfigurationSection section) throws LoadingException {
+		public SimpleTeam(ConfigurationSection section, int index) throws LoadingException {
+			this.index = index;
 			ValueLoader loader = new ValueLoader(section);
 			color = loader.loadEnum("color", ChatColor.class);
+			isNeutral = loader.loadBoolean("neutral", false);
 			name = ChatColor.translateAlternateColorCodes('&', loader.loadString("name"));
 			spawns = Arrays.asList(arena.getLocationSet(section.getString("spawns")).getMultiple());
 			if (spawns.isEmpty()) {
@@ -197,6 +266,22 @@ public class TeamDeathMatch extends DefaultGame {
 		}
 	}
 	
+	@Override
+	public boolean reset() {
+		if (!super.reset()) {
+			return false;
+		}
+		for (SimpleTeam team : teams.values()) {
+			team.setScore(0);
+			team.spawnCounter = 0;
+			team.alive = 0;
+		}
+		aliveTeams = 0;
+		players.clear();
+		queue.clear();
+		return true;
+	}
+	
 	@Override
 	public InGamePlayer addPlayer(Player player) {
 		InGamePlayer data = super.addPlayer(player);
@@ -209,7 +294,9 @@ public class TeamDeathMatch extends DefaultGame {
 		queue.remove(dataMap.get(player.getUniqueId()));
 		super.removePlayer(player);
 		players.remove(player.getUniqueId());
-		updateColors();
+		for (InGamePlayer g : dataMap.values()) {
+			g.updateColor(player.getName(), null);
+		}
 	}
 	
 	@Override
@@ -229,28 +316,24 @@ public class TeamDeathMatch extends DefaultGame {
 		InGamePlayer killer = attacker == null ? null : attacker.getCreator();
 		if (rounds) {
 			// kills in rounded games don't increase points
-			// we should check if there are any opposite team players left
-			// and increase points if the round is finished
-			List<SimpleTeam> aliveTeams = teams.values().stream()
-					// filter teams which still have alive players
-					.filter(team -> players.entrySet().stream()
-							// get uuids of team players and check if any is playing
-							.filter(e -> e.getValue().equals(team))
-							.anyMatch(e -> !e.getKey().equals(killed.getPlayer().getUniqueId()) &&
-									dataMap.get(e.getKey()).isPlaying())
-					)
-					.collect(Collectors.toList());
-			if (aliveTeams.size() == 1) {
-				SimpleTeam winningTeam = aliveTeams.get(0);
+			// the killed player is already dead, so if there's only one
+			// team with alive players the round is finished
+			if (aliveTeams == 1) {
+				SimpleTeam winningTeam = null;
+				for (SimpleTeam team : teams.values()) {
+					if (team.alive > 0) {
+						winningTeam = team;
+						break;
+					}
+				}
 				score(winningTeam, 1);
-				players.entrySet().stream()
-						.filter(e -> e.getValue().equals(winningTeam))
-						.map(e -> dataMap.get(e.getKey()))
-						.forEach(player -> moveToWaitingRoom(player));
+				for (InGamePlayer player : alive) {
+					moveToWaitingRoom(player);
+				}
 			}
 			// this is for test games where only one player is playing
-			if (aliveTeams.size() <= 1) {
-				waitingRoom.finishRound();
+			if (aliveTeams <= 1) {
+				finishRound();
 			}
 		} else {
 			// kills in continuous games increase points
@@ -268,6 +351,26 @@ public class TeamDeathMatch extends DefaultGame {
 		moveToWaitingRoom(killed);
 	}
 	
+	@Override
+	protected boolean setAlive(InGamePlayer player, boolean isAlive) {
+		if (!super.setAlive(player, isAlive)) {
+			return false;
+		}
+		SimpleTeam team = players.get(player.getPlayer().getUniqueId());
+		if (team != null) {
+			if (isAlive) {
+				if (team.alive++ == 0) {
+					aliveTeams++;
+				}
+			} else {
+				if (--team.alive == 0) {
+					aliveTeams--;
+				}
+			}
+		}
+		return true;
+	}
+	
 	@Override
 	public void handleRespawn(InGamePlayer player) {
 		super.handleRespawn(player);
@@ -279,12 +382,7 @@ public class TeamDeathMatch extends DefaultGame {
 	
 	@Override
 	public Attitude getAttitude(Target toThisOne, Target ofThisOne) {
-		if (getTeam(toThisOne).equals(getTeam(ofThisOne))) {
-			return Attitude.FRIENDLY;
-		} else {
-			return Attitude.HOSTILE;
-		}
-		// TODO handle neutral teams
+		return attitudes[toThisOne.getTeamIndex()][ofThisOne.getTeamIndex()];
 	}
 
 	@Override
@@ -368,24 +466,26 @@ public class TeamDeathMatch extends DefaultGame {
 		if (target instanceof InGamePlayer) {
 			team = players.get(((InGamePlayer) target).getPlayer().getUniqueId());
 		}
-		return team == null ? new SimpleTeam() : team;
+		return team == null ? neutral : team;
 	}
 	
 	private void setTeam(InGamePlayer data, SimpleTeam team) {
 		players.put(data.getPlayer().getUniqueId(), team);
+		data.setTeamIndex(team.index);
 		data.setColor(team.getColor());
 		String teamName = team.getName().startsWith("$") ?
 				LangManager.getMessage(data, team.getName().substring(1)) :
 				team.getName();
 		Flier.getInstance().getFancyStuff().sendTitle(
 				data.getPlayer(), team.getColor() + Utils.capitalize(teamName), null, 0, 0, 0);
-		updateColors();
-	}
-
-	private void updateColors() {
-		Map<String, ChatColor> colors = getColors();
+		// the new player needs all colors, others only the new one
+		String name = data.getPlayer().getName();
 		for (InGamePlayer g : dataMap.values()) {
-			g.updateColors(colors);
+			if (g.equals(data)) {
+				g.updateColors(getColors());
+			} else {
+				g.updateColor(name, team.getColor());
+			}
 		}
 	}
 	
@@ -415,6 +515,9 @@ public class TeamDeathMatch extends DefaultGame {
 	}
 	
 	private void score(SimpleTeam team, int amount) {
+		if (team == neutral) {
+			return;
+		}
 		int newScore = team.getScore() + amount;
 		team.setScore(newScore);
 		if (newScore >= pointsToWin) {
@@ -33,6 +33,7 @@ import org.bukkit.Location;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.core.Arena;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.util.LangManager;
@@ -82,13 +83,44 @@ class WaitingRoom {
 		startDelay = loader.loadNonNegativeInt(START_DELAY, 0);
 		locking = loader.loadBoolean(LOCKING, false);
 		location = game.getArena().getLocationSet(loader.loadString(WAITING_ROOM)).getSingle();
+		reset();
+	}
+	
+	/**
+	 * Empties the waiting room and starts its ticker, so the game can be
+	 * played again.
+	 */
+	public void reset() {
+		waitingPlayers.clear();
+		reason = WaitReason.NO_WAIT;
+		locked = false;
+		roundFinished = false;
+		currentWaitingTime = -1; // lower than 0 means the waiting room is idle
 		ticker = new BukkitRunnable() {
 			public void run() {
 				tick();
 			};
 		};
 		ticker.runTaskTimer(Flier.getInstance(), 1, 1);
-		currentWaitingTime = -1; // lower than 0 means the waiting room is idle
+	}
+	
+	/**
+	 * Checks the waiting room settings without creating it.
+	 * 
+	 * @param loader
+	 *            loader of the Game settings
+	 * @param arenas
+	 *            Arenas which need to contain the waiting room location
+	 */
+	public static void validate(ValueLoader loader, List<Arena> arenas) throws LoadingException {
+		loader.loadPositiveInt(MIN_PLAYERS, 1);
+		loader.loadNonNegativeInt(RESPAWN_DELAY, 0);
+		loader.loadNonNegativeInt(START_DELAY, 0);
+		loader.loadBoolean(LOCKING, false);
+		String waitingRoom = loader.loadString(WAITING_ROOM);
+		for (Arena arena : arenas) {
+			arena.getLocationSet(waitingRoom);
+		}
 	}
 	
 	public void finishRound() {
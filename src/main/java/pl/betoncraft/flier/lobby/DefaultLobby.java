@@ -85,11 +85,15 @@ public abstract class DefaultLobby implements Lobby, Listener {
 	protected boolean open = false;
 
 	protected Map<String, List<Game>> gameLists = new HashMap<>();
+	protected Map<String, List<Game>> pools = new HashMap<>();
+	protected Set<Game> outdated = new HashSet<>();
 	protected Map<String, Arena> arenas = new HashMap<>();
 	protected Location spawn;
 	protected Set<UUID> players = new HashSet<>();
+	protected Map<UUID, Game> playerGames = new HashMap<>();
 	protected Map<UUID, PlayerBackup> backups = new HashMap<>();
 	protected int maxGames;
+	protected int poolSize;
 	
 	protected String autoJoinGame;
 
@@ -99,6 +103,7 @@ public abstract class DefaultLobby implements Lobby, Listener {
 		name = loader.loadString("name", id);
 		spawn = loader.loadLocation("spawn");
 		maxGames = loader.loadNonNegativeInt("max_games", 0);
+		poolSize = loader.loadNonNegativeInt("pool_size", 1);
 		List<String> gameNames = section.getStringList("games");
 		Flier flier = Flier.getInstance();
 		for (String arenaName : section.getStringList("arenas")) {
@@ -106,13 +111,13 @@ public abstract class DefaultLobby implements Lobby, Listener {
 		}
 		for (String gameName : gameNames) {
 			try {
-				Game game = flier.getGame(gameName, this);
-				game.stop(GameEndCause.ABORTED);
+				flier.validateGame(gameName, this);
 			} catch (NoArenaException e) {
 				throw new LoadingException(String.format(
 						"Game '%s' does not have any viable arena to be played on.", gameName));
 			}
 			gameLists.put(gameName, new ArrayList<>());
+			pools.put(gameName, new ArrayList<>());
 		}
 		if (gameLists.isEmpty()) {
 			throw new LoadingException("Game list is empty.");
@@ -164,6 +169,7 @@ public abstract class DefaultLobby implements Lobby, Listener {
 		}
 		// join the lobby
 		players.add(uuid);
+		Flier.getInstance().playerJoinsLobby(uuid, this);
 		PlayerBackup backup = new PlayerBackup(player);
 		backup.save();
 		backups.put(uuid, backup);
@@ -183,6 +189,7 @@ public abstract class DefaultLobby implements Lobby, Listener {
 		UUID uuid = player.getUniqueId();
 		if (players.remove(uuid)) {
 			leaveGame(player);
+			Flier.getInstance().playerLeavesLobby(uuid, this);
 			LangManager.sendMessage(player, "lobby_left", getName(player));
 			backups.remove(uuid).load();
 		}
@@ -192,11 +199,7 @@ public abstract class DefaultLobby implements Lobby, Listener {
 	public JoinResult joinGame(Player player, String gameName) {
 		
 		// check if the player is already in some game
-		if (gameLists.values().stream().anyMatch(
-				set -> set.stream().anyMatch(
-						game -> game.getPlayers().containsKey(player.getUniqueId())
-				)
-		)) {
+		if (playerGames.containsKey(player.getUniqueId())) {
 			return JoinResult.ALREADY_IN_GAME;
 		}
 		
@@ -219,6 +222,7 @@ public abstract class DefaultLobby implements Lobby, Listener {
 			// if the game exists, join it
 			if (!event(player, game)) {
 				game.addPlayer(player);
+				playerGames.put(player.getUniqueId(), game);
 				return JoinResult.GAME_JOINED;
 			} else {
 				return JoinResult.BLOCKED;
@@ -229,13 +233,18 @@ public abstract class DefaultLobby implements Lobby, Listener {
 				int amount = gameLists.values().stream().flatMapToInt(set -> IntStream.of(set.size())).sum();
 				if (amount < maxGames || maxGames == 0) {
 					try {
-						game = Flier.getInstance().getGame(gameName, this);
+						game = takeFromPool(gameName);
+						if (game == null) {
+							game = Flier.getInstance().getGame(gameName, this);
+						}
 						if (!event(player, game)) {
 							games.add(game);
-							Flier.getInstance().playerJoinsGame(game.addPlayer(player));
+							game.addPlayer(player);
+							playerGames.put(player.getUniqueId(), game);
 							return JoinResult.GAME_CREATED;
 						} else {
 							game.stop(GameEndCause.ABORTED);
+							returnToPool(game);
 							return JoinResult.BLOCKED;
 						}
 					} catch (NoArenaException e) {
@@ -259,32 +268,70 @@ public abstract class DefaultLobby implements Lobby, Listener {
 	
 	@Override
 	public void leaveGame(Player player) {
-		loop: for (List<Game> set : gameLists.values()) {
-			for (Iterator<Game> it = set.iterator(); it.hasNext();) {
-				Game game = it.next();
-				InGamePlayer data = game.getPlayers().get(player.getUniqueId());
-				if (data != null) {
-					game.removePlayer(player);
-					if (game.getPlayers().isEmpty()) {
-						endGame(game, GameEndCause.ABANDONED);
-					} else {
-						game.getPlayers().values().stream()
-								.filter(
-										inGame -> inGame.getAttacker() != null &&
-										data.equals(inGame.getAttacker().getCreator())
-								).forEach(inGame -> inGame.setAttacker(null));
-					}
-					break loop;
-				}
-			}
+		Game game = playerGames.remove(player.getUniqueId());
+		if (game == null) {
+			return;
+		}
+		InGamePlayer data = game.getPlayers().get(player.getUniqueId());
+		game.removePlayer(player);
+		if (game.getPlayers().isEmpty()) {
+			endGame(game, GameEndCause.ABANDONED);
+		} else {
+			game.getPlayers().values().stream()
+					.filter(
+							inGame -> inGame.getAttacker() != null &&
+							data.equals(inGame.getAttacker().getCreator())
+					).forEach(inGame -> inGame.setAttacker(null));
 		}
 	}
 	
 	@Override
 	public void endGame(Game game, GameEndCause cause) {
+		if (!gameLists.get(game.getID()).remove(game)) {
+			return; // already ended
+		}
+		for (UUID uuid : game.getPlayers().keySet()) {
+			playerGames.remove(uuid);
+		}
 		game.stop(cause);
 		game.getArena().setUsed(false);
-		gameLists.get(game.getID()).remove(game);
+		returnToPool(game);
+	}
+	
+	/**
+	 * Takes a stopped game from the pool and resets it, skipping games which
+	 * can't be reset because their arenas are used.
+	 * 
+	 * @param gameName
+	 *            ID of the game
+	 * @return the reset game or null if there's none available
+	 */
+	protected Game takeFromPool(String gameName) {
+		for (Iterator<Game> it = pools.get(gameName).iterator(); it.hasNext();) {
+			Game game = it.next();
+			if (game.reset()) {
+				it.remove();
+				return game;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Keeps the stopped game for reuse if the pool is not full yet and the
+	 * game was created from the current content.
+	 * 
+	 * @param game
+	 *            the stopped game
+	 */
+	protected void returnToPool(Game game) {
+		if (outdated.remove(game)) {
+			return;
+		}
+		List<Game> pool = pools.get(game.getID());
+		if (pool.size() < poolSize) {
+			pool.add(game);
+		}
 	}
 	
 	public static void joinMessage(Player player, JoinResult result) {
@@ -332,6 +379,13 @@ public abstract class DefaultLobby implements Lobby, Listener {
 		return spawn;
 	}
 	
+	@Override
+	public void dropReusedGames() {
+		pools.values().forEach(pool -> pool.clear());
+		// running games were created from the old content too
+		gameLists.values().forEach(list -> outdated.addAll(list));
+	}
+	
 	@Override
 	public void stop() {
 		// abort all games
@@ -339,6 +393,8 @@ public abstract class DefaultLobby implements Lobby, Listener {
 			List<Game> temp = new ArrayList<>(list);
 			temp.forEach(game -> endGame(game, GameEndCause.ABORTED));
 		});
+		pools.values().forEach(pool -> pool.clear());
+		outdated.clear();
 		// move players out of the lobby
 		for (Player player : players.stream().map(uuid -> Bukkit.getPlayer(uuid)).collect(Collectors.toList())) {
 			removePlayer(player);
@@ -361,12 +417,7 @@ public abstract class DefaultLobby implements Lobby, Listener {
 			uuid[1] = entityEvent.getDamager().getUniqueId();
 		}
 		for (UUID u : uuid) {
-			if (u != null && players.contains(u) &&
-					!gameLists.values().stream().anyMatch(
-							set -> set.stream().anyMatch(
-									game -> game.getPlayers().containsKey(u)
-							)
-					)) {
+			if (u != null && players.contains(u) && !playerGames.containsKey(u)) {
 				event.setCancelled(true);
 				break;
 			}
@@ -23,13 +23,8 @@
  */
 package pl.betoncraft.flier.lobby;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
-import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
@@ -39,6 +34,7 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 
 import pl.betoncraft.flier.api.core.LoadingException;
+import pl.betoncraft.flier.util.BlockIndex;
 import pl.betoncraft.flier.util.DoubleClickBlocker;
 import pl.betoncraft.flier.util.Utils;
 import pl.betoncraft.flier.util.ValueLoader;
@@ -50,8 +46,8 @@ import pl.betoncraft.flier.util.ValueLoader;
  */
 public class PhysicalLobby extends DefaultLobby {
 
-	private List<Block> join = new ArrayList<>();
-	private Map<String, Location> start = new HashMap<>();
+	private BlockIndex<Boolean> join = new BlockIndex<>();
+	private BlockIndex<String> start = new BlockIndex<>();
 	private Block leave;
 
 	public PhysicalLobby(ConfigurationSection section) throws LoadingException {
@@ -60,7 +56,7 @@ public class PhysicalLobby extends DefaultLobby {
 		for (String loc : section.getStringList("join")) {
 			index++;
 			try {
-				join.add(Utils.parseLocation(loc).getBlock());
+				join.put(Utils.parseLocation(loc), true);
 			} catch (LoadingException e) {
 				throw (LoadingException) new LoadingException(String.format("Error in %s join location", index)).initCause(e);
 			}
@@ -72,7 +68,7 @@ public class PhysicalLobby extends DefaultLobby {
 				if (!gameLists.containsKey(key)) {
 					throw new LoadingException(String.format("Start location points to non-existing game '%s'.", key));
 				}
-				start.put(key, startLoader.loadLocation(key));
+				start.put(startLoader.loadLocation(key), key);
 			}
 		}
 		leave = loader.loadLocation("leave").getBlock();
@@ -106,14 +102,12 @@ public class PhysicalLobby extends DefaultLobby {
 				return;
 			}
 			// joining the game
-			start.entrySet().stream()
-					.filter(e -> e.getValue().equals(block.getLocation()))
-					.findFirst()
-					.ifPresent(e -> {
-						JoinResult res = joinGame(player, e.getKey());
-						DefaultLobby.joinMessage(player, res);
-						DoubleClickBlocker.block(player);
-					});
+			String game = start.get(block);
+			if (game != null) {
+				JoinResult res = joinGame(player, game);
+				DefaultLobby.joinMessage(player, res);
+				DoubleClickBlocker.block(player);
+			}
 		} else {
 			// joining
 			if (event.hasBlock() && join.contains(event.getClickedBlock())) {
@@ -29,7 +29,6 @@ import org.bukkit.Location;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.SidebarLine;
 import pl.betoncraft.flier.util.LangManager;
-import pl.betoncraft.flier.util.Utils;
 
 /**
  * A sidebar line showing player's altitude.
@@ -55,7 +54,7 @@ public class Altitude implements SidebarLine {
 			String color;
 			double health = player.getPlayer().getHealth();
 			Location loc = player.getPlayer().getLocation();
-			int aboveGround = Utils.getAltitude(loc, (int) health + 1);
+			int aboveGround = player.getAltitude((int) health + 1);
 			if (aboveGround == 0) {
 				color = ChatColor.GRAY.toString();
 			} else if (aboveGround < health) {
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.Attacker;
+import pl.betoncraft.flier.api.core.Target;
+
+/**
+ * Keeps Attackers of all entities spawned by Damagers, indexed by entity UUID.
+ * Entries are added when the entity is spawned and removed when it hits
+ * something, explodes, is unloaded with its chunk or otherwise disappears from
+ * the world. All damage caused by these entities is dispatched from here.
+ *
+ * @author Jakub Sapalski
+ */
+public class AttackerRegistry implements Listener {
+
+	private static final int SWEEP_TICKS = 100;
+
+	private static final Map<UUID, Entry> entries = new HashMap<>();
+
+	public AttackerRegistry() {
+		entries.clear();
+		Bukkit.getPluginManager().registerEvents(this, Flier.getInstance());
+		new BukkitRunnable() {
+			@Override
+			public void run() {
+				sweep();
+			}
+		}.runTaskTimer(Flier.getInstance(), SWEEP_TICKS, SWEEP_TICKS);
+	}
+
+	/**
+	 * Registers the Attacker of the entity.
+	 * 
+	 * @param entity
+	 *            entity spawned by the Damager
+	 * @param attacker
+	 *            Attacker responsible for that entity
+	 * @param single
+	 *            whether the entity is removed after the first hit
+	 */
+	public static void put(Entity entity, Attacker attacker, boolean single) {
+		entries.put(entity.getUniqueId(), new Entry(entity, attacker, single));
+	}
+
+	/**
+	 * @param entity
+	 *            any entity
+	 * @return the Attacker of this entity or null if it wasn't spawned by a
+	 *         Damager
+	 */
+	public static Attacker get(Entity entity) {
+		Entry entry = entries.get(entity.getUniqueId());
+		return entry == null ? null : entry.attacker;
+	}
+
+	/**
+	 * Removes the Attacker of the entity. The entity itself is not removed.
+	 * 
+	 * @param entity
+	 *            entity spawned by the Damager
+	 */
+	public static void remove(Entity entity) {
+		entries.remove(entity.getUniqueId());
+	}
+
+	/**
+	 * Removes entries of entities which are no longer in the world.
+	 */
+	private static void sweep() {
+		for (Iterator<Entry> i = entries.values().iterator(); i.hasNext();) {
+			if (!i.next().entity.isValid()) {
+				i.remove();
+			}
+		}
+	}
+
+	@EventHandler(priority=EventPriority.LOW)
+	public void onHit(EntityDamageByEntityEvent event) {
+		if (event.isCancelled()) {
+			return;
+		}
+		Entry entry = entries.get(event.getDamager().getUniqueId());
+		if (entry == null) {
+			return;
+		}
+		event.setCancelled(true);
+		if (entry.single) {
+			entries.remove(entry.entity.getUniqueId());
+			entry.entity.remove();
+		}
+		Game game = entry.attacker.getCreator().getGame();
+		Target target = game.getTargets().get(event.getEntity().getUniqueId());
+		if (target != null && target.isTargetable()) {
+			game.handleHit(target, entry.attacker);
+		}
+	}
+
+	@EventHandler
+	public void onExplode(EntityExplodeEvent event) {
+		if (entries.remove(event.getEntity().getUniqueId()) != null) {
+			event.blockList().clear();
+		}
+	}
+
+	@EventHandler
+	public void onChunkUnload(ChunkUnloadEvent event) {
+		Entity[] entities = event.getChunk().getEntities();
+		for (int i = 0; i < entities.length; i++) {
+			if (entries.remove(entities[i].getUniqueId()) != null) {
+				entities[i].remove();
+			}
+		}
+	}
+
+	private static class Entry {
+
+		private final Entity entity;
+		private final Attacker attacker;
+		private final boolean single;
+
+		private Entry(Entity entity, Attacker attacker, boolean single) {
+			this.entity = entity;
+			this.attacker = attacker;
+			this.single = single;
+		}
+
+	}
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import pl.betoncraft.flier.api.Flier;
+
+/**
+ * Keeps player backups in memory and writes all of them to a single file in
+ * the background. Backups which were never released (because the server
+ * crashed) are restored when their players join.
+ *
+ * @author Jakub Sapalski
+ */
+public class BackupStore implements Listener {
+
+	private static BackupStore instance;
+
+	private final Path file;
+	private final Path temp;
+	private final Map<UUID, PlayerBackup> backups = new ConcurrentHashMap<>();
+	private final Map<UUID, PlayerBackup> unreleased = new HashMap<>();
+	private final ExecutorService writer = Executors.newSingleThreadExecutor();
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+	/**
+	 * Creates the store and loads backups left from the previous run.
+	 */
+	public BackupStore() {
+		instance = this;
+		Path dir = Flier.getInstance().getDataFolder().toPath().resolve("backup");
+		file = dir.resolve("players.yml");
+		temp = dir.resolve("players.yml.tmp");
+		try {
+			Files.createDirectories(dir);
+			if (Files.exists(file)) {
+				YamlConfiguration config = new YamlConfiguration();
+				config.loadFromString(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+				for (String key : config.getKeys(false)) {
+					ConfigurationSection section = config.getConfigurationSection(key);
+					PlayerBackup backup = section == null ? null : PlayerBackup.read(section);
+					if (backup != null) {
+						UUID uuid = UUID.fromString(key);
+						backups.put(uuid, backup);
+						unreleased.put(uuid, backup);
+					}
+				}
+			}
+		} catch (IOException | InvalidConfigurationException | IllegalArgumentException e) {
+			Flier.getInstance().getLogger().warning("Could not load player backups: " + e.getMessage());
+		}
+		if (!unreleased.isEmpty()) {
+			Flier.getInstance().getLogger().info(
+					String.format("Found %d player backups to restore after a crash.", unreleased.size()));
+			for (Player player : Bukkit.getOnlinePlayers()) {
+				recover(player);
+			}
+		}
+		Bukkit.getPluginManager().registerEvents(this, Flier.getInstance());
+	}
+
+	/**
+	 * Stores the backup and schedules writing it to the disk.
+	 */
+	static void put(UUID uuid, PlayerBackup backup) {
+		instance.backups.put(uuid, backup);
+		instance.unreleased.remove(uuid);
+		instance.schedule();
+	}
+
+	/**
+	 * @return the stored backup or null if there's none
+	 */
+	static PlayerBackup get(UUID uuid) {
+		return instance.backups.get(uuid);
+	}
+
+	/**
+	 * Removes the backup, as the player was restored from it.
+	 */
+	static void release(UUID uuid) {
+		instance.unreleased.remove(uuid);
+		if (instance.backups.remove(uuid) != null) {
+			instance.schedule();
+		}
+	}
+
+	/**
+	 * Writes pending changes and stops the writer thread.
+	 */
+	public static void shutdown() {
+		instance.writer.shutdown();
+		try {
+			instance.writer.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void schedule() {
+		// consecutive changes are written once
+		if (scheduled.compareAndSet(false, true)) {
+			writer.execute(this::write);
+		}
+	}
+
+	private void write() {
+		scheduled.set(false);
+		YamlConfiguration config = new YamlConfiguration();
+		for (Entry<UUID, PlayerBackup> entry : backups.entrySet()) {
+			entry.getValue().write(config.createSection(entry.getKey().toString()));
+		}
+		try {
+			Files.write(temp, config.saveToString().getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Flier.getInstance().getLogger().warning("Could not save player backups: " + e.getMessage());
+		}
+	}
+
+	private void recover(Player player) {
+		PlayerBackup backup = unreleased.get(player.getUniqueId());
+		if (backup != null) {
+			PlayerBackup.recover(player, backup);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	public void onJoin(PlayerJoinEvent event) {
+		if (!unreleased.isEmpty()) {
+			recover(event.getPlayer());
+		}
+	}
+
+}
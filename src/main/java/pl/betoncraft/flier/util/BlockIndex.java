@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Maps block positions to values. Positions are packed into a single long
+ * (6 bits of world number, 25 bits of X and Z each and 8 bits of Y) and kept
+ * in an open addressing table, so looking up a clicked block doesn't need to
+ * resolve any blocks or create any objects. Worlds are numbered separately in
+ * each index. Positions which can't be packed (too far away or in too many
+ * different worlds) are kept in a plain map instead.
+ *
+ * @author Jakub Sapalski
+ */
+public class BlockIndex<T> {
+
+	private static final long NONE = -1; // never a valid key, the last world number is not used
+	private static final int MAX_WORLDS = (1 << 6) - 1;
+	private static final int XZ_LIMIT = 1 << 24;
+	private static final long XZ_MASK = (1L << 25) - 1;
+
+	private final List<UUID> worlds = new ArrayList<>(1);
+	private Map<Block, Object> overflow = null;
+
+	private long[] keys = new long[16];
+	private Object[] values = new Object[16];
+	private int size = 0;
+
+	/**
+	 * Adds the block at this location to the index, replacing the previous
+	 * value.
+	 * 
+	 * @param location
+	 *            location of the block
+	 * @param value
+	 *            value for that block, not null
+	 */
+	public void put(Location location, T value) {
+		long key = pack(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), true);
+		if (key == NONE) {
+			if (overflow == null) {
+				overflow = new HashMap<>();
+			}
+			overflow.put(location.getBlock(), value);
+			return;
+		}
+		if ((size + 1) * 2 > keys.length) {
+			resize();
+		}
+		int i = find(key);
+		if (values[i] == null) {
+			keys[i] = key;
+			size++;
+		}
+		values[i] = value;
+	}
+
+	/**
+	 * @param block
+	 *            the block
+	 * @return the value for that block or null if there's none
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(Block block) {
+		long key = pack(block.getWorld(), block.getX(), block.getY(), block.getZ(), false);
+		if (key == NONE) {
+			return overflow == null ? null : (T) overflow.get(block);
+		}
+		return (T) values[find(key)];
+	}
+
+	/**
+	 * @param block
+	 *            the block
+	 * @return whenever there is a value for that block
+	 */
+	public boolean contains(Block block) {
+		return get(block) != null;
+	}
+
+	/**
+	 * Removes all blocks from the index.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+		worlds.clear();
+		overflow = null;
+	}
+
+	/**
+	 * Returns the slot with this key or an empty slot where it should be put.
+	 */
+	private int find(long key) {
+		int mask = keys.length - 1;
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int i = (int) (hash ^ (hash >>> 32)) & mask;
+		while (values[i] != null && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private void resize() {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int j = find(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Packs the block position into a long. Worlds get their numbers when
+	 * their first block is indexed, so looking up blocks in other worlds
+	 * returns NONE.
+	 */
+	private long pack(World world, int x, int y, int z, boolean register) {
+		if (world == null || x < -XZ_LIMIT || x >= XZ_LIMIT || z < -XZ_LIMIT || z >= XZ_LIMIT || y < 0 || y > 255) {
+			return NONE;
+		}
+		// an index usually covers one or two worlds, a list is faster than a map here
+		int number = worlds.indexOf(world.getUID());
+		if (number < 0) {
+			if (!register || worlds.size() >= MAX_WORLDS) {
+				return NONE;
+			}
+			number = worlds.size();
+			worlds.add(world.getUID());
+		}
+		return ((long) number << 58) | ((x & XZ_MASK) << 33) | ((z & XZ_MASK) << 8) | y;
+	}
+
+}
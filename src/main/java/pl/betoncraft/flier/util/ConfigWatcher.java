@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import pl.betoncraft.flier.api.Flier;
+
+/**
+ * Watches configuration files and reloads changed content once they stop
+ * changing for a while.
+ *
+ * @author Jakub Sapalski
+ */
+public class ConfigWatcher extends Thread {
+
+	private final WatchService service;
+	private final int debounce;
+	private BukkitTask pending;
+
+	/**
+	 * Starts watching the plugin's data folder.
+	 * 
+	 * @param debounce
+	 *            delay in ticks between the last change and reloading
+	 * @throws IOException
+	 *             when the folder can't be watched
+	 */
+	public ConfigWatcher(int debounce) throws IOException {
+		super("Flier config watcher");
+		this.debounce = debounce;
+		service = FileSystems.getDefault().newWatchService();
+		Flier.getInstance().getDataFolder().toPath().register(service,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+		setDaemon(true);
+		start();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					Object context = event.context();
+					if (context instanceof Path && context.toString().endsWith(".yml")) {
+						changed = true;
+					}
+				}
+				key.reset();
+				if (changed && Flier.getInstance().isEnabled()) {
+					Bukkit.getScheduler().runTask(Flier.getInstance(), this::schedule);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	private void schedule() {
+		if (pending != null) {
+			pending.cancel();
+		}
+		pending = Bukkit.getScheduler().runTaskLater(Flier.getInstance(), () -> {
+			pending = null;
+			Flier.getInstance().reload(true);
+		}, debounce);
+	}
+
+	/**
+	 * Stops watching the files. Must be called from the main thread.
+	 */
+	public void stopWatching() {
+		if (pending != null) {
+			pending.cancel();
+			pending = null;
+		}
+		try {
+			service.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import pl.betoncraft.flier.api.core.ConfigManager;
+import pl.betoncraft.flier.api.core.LoadingException;
+
+/**
+ * Checks the content reachable from the lobbies before it's loaded. It only
+ * reads the configuration, so it can run outside of the main thread.
+ *
+ * @author Jakub Sapalski
+ */
+public class ContentValidator {
+
+	private final ConfigManager config;
+	private final Map<String, Set<String>> types;
+
+	/**
+	 * @param config
+	 *            configuration to validate
+	 * @param types
+	 *            registered type names, keyed by object names ("lobby",
+	 *            "game" etc.)
+	 */
+	public ContentValidator(ConfigManager config, Map<String, Set<String>> types) {
+		this.config = config;
+		this.types = types;
+	}
+
+	/**
+	 * Validates all lobbies.
+	 * 
+	 * @throws LoadingException
+	 *             describing the first encountered problem
+	 */
+	public void validate() throws LoadingException {
+		ConfigurationSection lobbies = config.getLobbies();
+		for (String id : lobbies.getKeys(false)) {
+			ConfigurationSection section = lobbies.getConfigurationSection(id);
+			try {
+				if (section == null) {
+					throw new LoadingException("Lobby must be a section.");
+				}
+				validateLobby(section);
+			} catch (LoadingException e) {
+				throw error(e, id, "lobby");
+			}
+		}
+	}
+
+	private void validateLobby(ConfigurationSection section) throws LoadingException {
+		checkType(section, "lobby");
+		for (String arena : section.getStringList("arenas")) {
+			getSection(config.getArenas(), arena, "arena");
+		}
+		for (String game : section.getStringList("games")) {
+			try {
+				checkType(getSection(config.getGames(), game, "game"), "game");
+			} catch (LoadingException e) {
+				throw error(e, game, "game");
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the section exists in the file, like Flier does when
+	 * loading objects.
+	 */
+	private ConfigurationSection getSection(ConfigurationSection file, String id, String name)
+			throws LoadingException {
+		ConfigurationSection section = file.getConfigurationSection(id);
+		if (section == null || section.getKeys(false).size() == 0) {
+			throw new LoadingException(String.format("%s with ID '%s' does not exist.", Utils.capitalize(name), id));
+		}
+		return section;
+	}
+
+	/**
+	 * Checks whether the section specifies a registered type.
+	 */
+	private void checkType(ConfigurationSection section, String name) throws LoadingException {
+		String type = section.getString("type");
+		if (type == null) {
+			throw new LoadingException("Type is not defined.");
+		}
+		Set<String> registered = types.get(name);
+		if (registered == null || !registered.contains(type)) {
+			throw new LoadingException(String.format("%s type '%s' does not exist.", Utils.capitalize(name), type));
+		}
+	}
+
+	private LoadingException error(LoadingException e, String id, String name) {
+		return (LoadingException) new LoadingException(String.format("Error in '%s' %s.", id, name)).initCause(e);
+	}
+
+}
@@ -27,7 +27,18 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -54,6 +65,9 @@ public class DefaultConfigManager implements ConfigManager {
 	                            EFFECTS = "effects.yml",
 	                            ARENAS = "arenas.yml";
 
+	private static final String[] FILES = {LOBBIES, GAMES, BONUSES, ENGINES, WINGS, ITEMS, ACTIONS, ACTIVATORS,
+	                                       MODIFICATIONS, ITEM_SETS, EFFECTS, ARENAS};
+
 	private Config lobbies;
 	private Config games;
 	private Config bonuses;
@@ -67,34 +81,128 @@ public class DefaultConfigManager implements ConfigManager {
 	private Config effects;
 	private Config arenas;
 
+	/**
+	 * Loads all configuration files, parsing them in parallel. Blocks until
+	 * all of them are loaded.
+	 */
 	public DefaultConfigManager() {
-		Flier.getInstance().saveDefaultConfig();
-		lobbies = new Config(LOBBIES);
-		games = new Config(GAMES);
-		bonuses = new Config(BONUSES);
-		engines = new Config(ENGINES);
-		wings = new Config(WINGS);
-		items = new Config(ITEMS);
-		actions = new Config(ACTIONS);
-		activators = new Config(ACTIVATORS);
-		modifications = new Config(MODIFICATIONS);
-		itemSets = new Config(ITEM_SETS);
-		effects = new Config(EFFECTS);
-		arenas = new Config(ARENAS);
+		ExecutorService pool = createPool();
+		try {
+			load(parse(pool).join());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private DefaultConfigManager(Map<String, Config> configs) {
+		load(configs);
+	}
+
+	private void load(Map<String, Config> configs) {
+		lobbies = configs.get(LOBBIES);
+		games = configs.get(GAMES);
+		bonuses = configs.get(BONUSES);
+		engines = configs.get(ENGINES);
+		wings = configs.get(WINGS);
+		items = configs.get(ITEMS);
+		actions = configs.get(ACTIONS);
+		activators = configs.get(ACTIVATORS);
+		modifications = configs.get(MODIFICATIONS);
+		itemSets = configs.get(ITEM_SETS);
+		effects = configs.get(EFFECTS);
+		arenas = configs.get(ARENAS);
+	}
+
+	/**
+	 * Parses all configuration files in parallel, using the specified
+	 * executor. Must be called from the main thread; the returned future is
+	 * completed on one of the executor's threads.
+	 * 
+	 * @param executor
+	 *            executor running the parsing
+	 * @return the future configuration manager
+	 */
+	public static CompletableFuture<DefaultConfigManager> loadAsync(Executor executor) {
+		return parse(executor).thenApply(configs -> new DefaultConfigManager(configs));
+	}
+
+	/**
+	 * Creates a pool of daemon threads suitable for parsing configuration
+	 * files. It should be shut down once the loading is finished.
+	 */
+	public static ExecutorService createPool() {
+		int threads = Math.max(1, Math.min(FILES.length, Runtime.getRuntime().availableProcessors()));
+		AtomicInteger counter = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "Flier config loader #" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Compares top level sections of two versions of a file.
+	 * 
+	 * @param oldFile
+	 *            previous version of the file
+	 * @param newFile
+	 *            current version of the file
+	 * @return IDs of sections which were added, removed or changed
+	 */
+	public static Set<String> changedIDs(ConfigurationSection oldFile, ConfigurationSection newFile) {
+		Set<String> changed = new HashSet<>();
+		Set<String> ids = new HashSet<>(oldFile.getKeys(false));
+		ids.addAll(newFile.getKeys(false));
+		for (String id : ids) {
+			if (!Objects.equals(values(oldFile, id), values(newFile, id))) {
+				changed.add(id);
+			}
+		}
+		return changed;
+	}
+	
+	private static Object values(ConfigurationSection file, String id) {
+		ConfigurationSection section = file.getConfigurationSection(id);
+		if (section == null) {
+			return file.get(id);
+		}
+		// nested sections don't implement equals, leaf values do
+		Map<String, Object> values = new HashMap<>();
+		section.getValues(true).forEach((key, value) -> {
+			if (!(value instanceof ConfigurationSection)) {
+				values.put(key, value);
+			}
+		});
+		return values;
+	}
+
+	private static CompletableFuture<Map<String, Config>> parse(Executor executor) {
+		Flier flier = Flier.getInstance();
+		flier.saveDefaultConfig();
+		Map<String, CompletableFuture<Config>> futures = new HashMap<>();
+		for (String name : FILES) {
+			futures.put(name, CompletableFuture.supplyAsync(() -> new Config(flier, name), executor));
+		}
+		return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+				.thenApply(v -> {
+					Map<String, Config> configs = new HashMap<>();
+					futures.forEach((name, future) -> configs.put(name, future.join()));
+					return configs;
+				});
 	}
 	
-	private class Config {
+	private static class Config {
 		
 		File file;
 		FileConfiguration config;
 		
-		Config(String name) {
-			file = new File(Flier.getInstance().getDataFolder(), name);
+		Config(Flier flier, String name) {
+			file = new File(flier.getDataFolder(), name);
 			if (!file.exists()) {
 				try {
 					file.createNewFile();
 					FileOutputStream out = new FileOutputStream(file);
-					InputStream in = Flier.getInstance().getResource(name);
+					InputStream in = flier.getResource(name);
 					byte[] buf = new byte[1024*1024];
 					int len = 0;
 					while ((len = in.read(buf)) > 0) {
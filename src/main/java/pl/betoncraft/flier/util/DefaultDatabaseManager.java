@@ -25,12 +25,15 @@ package pl.betoncraft.flier.util;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
 import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Game;
 import pl.betoncraft.flier.api.core.DatabaseManager;
 import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.UsableItem;
+import pl.betoncraft.flier.database.Compactor;
 import pl.betoncraft.flier.database.Database;
+import pl.betoncraft.flier.database.Migrator;
 import pl.betoncraft.flier.database.MySQL;
 import pl.betoncraft.flier.database.SQLite;
 import pl.betoncraft.flier.event.FlierPlayerKillEvent.KillType;
@@ -39,7 +42,10 @@ import java.io.File;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -49,14 +55,27 @@ import java.util.logging.Logger;
  */
 public class DefaultDatabaseManager implements DatabaseManager {
 
+    private static final int CONVERSION_CHUNK = 500;
+    private static final int CONVERSION_INTERVAL = 20;
+
     private boolean enabled = false;
     private Database db;
+    private Migrator migrator;
+    private BukkitTask conversion;
+    private Compactor compactor;
+    private BukkitTask compaction;
+    private long retention;
+    private int compactionChunk;
+
+    // names which were already added to dictionary tables
+    private Set<String> weapons = new HashSet<>();
+    private Set<String> classes = new HashSet<>();
 
     public DefaultDatabaseManager() {
 
         // prepare required stuff
         ConfigurationSection dbSection = Flier.getInstance().getConfig().getConfigurationSection("database");
-//		String prefix = dbSection.getString("prefix", "flier_");
+        String prefix = dbSection.getString("prefix", "flier_");
         boolean mysql = dbSection.getBoolean("mysql");
 
         // connect to the database
@@ -84,19 +103,43 @@ public class DefaultDatabaseManager implements DatabaseManager {
         // load queries
         ConfigurationSection queries = YamlConfiguration.loadConfiguration(
                 new InputStreamReader(Flier.getInstance().getResource("queries.yml"), Charset.forName("UTF-8")));
-        ConfigurationSection mysqlQueries = queries.getConfigurationSection("mysql");
-        ConfigurationSection sqliteQueries = queries.getConfigurationSection("sqlite");
+        ConfigurationSection dialect = queries.getConfigurationSection(mysql ? "mysql" : "sqlite");
+        migrator = new Migrator(db, dialect, prefix);
 
         try {
-            // create tables
-            db.execute(mysqlQueries.getString("create_kills"), sqliteQueries.getString("create_kills"));
+            // bring tables up to date
+            migrator.migrate();
             // register loaded statements
-            for (String key : mysqlQueries.getKeys(false)) {
-                db.registerStatement(key, mysqlQueries.getString(key), sqliteQueries.getString(key));
+            ConfigurationSection statements = dialect.getConfigurationSection("statements");
+            for (String key : statements.getKeys(false)) {
+                db.registerStatement(key, migrator.prepare(statements.getString(key)));
             }
         } catch (SQLException e) {
             // error in SQL syntax
             e.printStackTrace();
+            return;
+        }
+
+        // convert rows from the old layout in the background
+        try {
+            if (migrator.needsConversion()) {
+                Flier.getInstance().getLogger().info("Converting old statistics to the new database layout.");
+                conversion = Bukkit.getScheduler().runTaskTimerAsynchronously(
+                        Flier.getInstance(), this::convert, CONVERSION_INTERVAL, CONVERSION_INTERVAL);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        // fold old kills into daily summaries, without competing with the live inserts
+        ConfigurationSection compactionSection = dbSection.getConfigurationSection("compaction");
+        if (compactionSection != null && compactionSection.getBoolean("enabled", false)) {
+            compactor = new Compactor(db, migrator, dialect);
+            retention = compactionSection.getLong("days", 30) * 24 * 60 * 60 * 1000;
+            compactionChunk = compactionSection.getInt("chunk", 200);
+            int interval = compactionSection.getInt("interval", 100);
+            compaction = Bukkit.getScheduler().runTaskTimerAsynchronously(
+                    Flier.getInstance(), this::compact, interval, interval);
         }
 
         // schedule connection pinger to keep it alive
@@ -113,11 +156,50 @@ public class DefaultDatabaseManager implements DatabaseManager {
         enabled = true;
     }
 
+    private synchronized void convert() {
+        try {
+            if (!migrator.convertChunk(CONVERSION_CHUNK)) {
+                Flier.getInstance().getLogger().info("Old statistics converted.");
+                conversion.cancel();
+                conversion = null;
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            Flier.getInstance().getLogger().warning("Could not convert old statistics: " + e.getMessage());
+            conversion.cancel();
+            conversion = null;
+            migrator.close();
+        }
+    }
+
+    private synchronized void compact() {
+        // wait until old rows are converted and the saver has nothing to do
+        if (conversion != null || db.isSaving()) {
+            return;
+        }
+        try {
+            compactor.compactChunk(compactionChunk, new Timestamp(System.currentTimeMillis() - retention));
+        } catch (SQLException e) {
+            Flier.getInstance().getLogger().warning("Could not compact old statistics: " + e.getMessage());
+            compaction.cancel();
+            compactor.close();
+        }
+    }
+
     @Override
     public void disconnect() {
         if (!enabled) {
             return;
         }
+        synchronized (this) {
+            if (conversion != null) {
+                conversion.cancel();
+                migrator.close();
+            }
+            if (compaction != null) {
+                compaction.cancel();
+                compactor.close();
+            }
+        }
         try {
             db.disconnect();
         } catch (SQLException e) {
@@ -130,17 +212,31 @@ public class DefaultDatabaseManager implements DatabaseManager {
         if (!enabled) {
             return;
         }
+        String killedClass = killed.getKit().getClassName().orElse(null);
+        String killerClass = killer == null ? null : killer.getKit().getClassName().orElse(null);
+        String weaponName = weapon == null ? null : weapon.getID();
+        // dictionary rows are queued before the kill, so the saver adds them first
+        addName("add_class", classes, killedClass);
+        addName("add_class", classes, killerClass);
+        addName("add_weapon", weapons, weaponName);
+        // enums are stored as their ordinals, so new values must be appended at the end
         db.update("add_kill", new Object[]{
                 game.getUniqueNumber(),
-                killed.getPlayer().getUniqueId().toString(),
-                killed.getKit().getClassName().orElse(null),
-                killer == null ? null : killer.getPlayer().getUniqueId().toString(),
-                killer == null ? null : killer.getKit().getClassName().orElse(null),
-                weapon == null ? null : weapon.getID(),
-                type.toString(),
-                game.getAttitude(killed, killer).toString(),
+                Migrator.toBytes(killed.getPlayer().getUniqueId()),
+                killedClass,
+                killer == null ? null : Migrator.toBytes(killer.getPlayer().getUniqueId()),
+                killerClass,
+                weaponName,
+                type.ordinal(),
+                game.getAttitude(killed, killer).ordinal(),
                 new Date()
         });
     }
 
+    private void addName(String statement, Set<String> known, String name) {
+        if (name != null && known.add(name)) {
+            db.update(statement, new Object[]{name});
+        }
+    }
+
 }
@@ -27,11 +27,8 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import pl.betoncraft.flier.api.Flier;
-
 /**
  * Prevents double clicks after changing held item.
  * 
@@ -56,7 +53,7 @@ public class DoubleClickBlocker {
 	public static void block(Player player) {
 		UUID uuid = player.getUniqueId();
 		if (uuids.add(uuid)) {
-			Bukkit.getScheduler().runTaskLater(Flier.getInstance(), () -> uuids.remove(uuid), 5);
+			TimingWheel.schedule(5, () -> uuids.remove(uuid));
 		}
 	}
 
@@ -37,6 +37,7 @@ import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.Kit;
 import pl.betoncraft.flier.api.core.SidebarLine;
 import pl.betoncraft.flier.api.core.UsableItem;
+import pl.betoncraft.flier.api.core.Usage;
 
 /**
  * Dummy player for testing games.
@@ -64,6 +65,16 @@ public class DummyPlayer implements InGamePlayer {
 		return null;
 	}
 
+	@Override
+	public Usage.Where getPosition() {
+		return null;
+	}
+
+	@Override
+	public int getAltitude(int max) {
+		return 0;
+	}
+
 	@Override
 	public Vector getVelocity() {
 		return null;
@@ -98,8 +109,8 @@ public class DummyPlayer implements InGamePlayer {
 	}
 
 	@Override
-	public List<String> getTriggers() {
-		return null;
+	public long getTriggers() {
+		return 0;
 	}
 
 	@Override
@@ -180,6 +191,10 @@ public class DummyPlayer implements InGamePlayer {
 	public void updateColors(Map<String, ChatColor> map) {
 	}
 
+	@Override
+	public void updateColor(String name, ChatColor color) {
+	}
+
 	@Override
 	public List<SidebarLine> getLines() {
 		return null;
@@ -24,7 +24,9 @@
 package pl.betoncraft.flier.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,10 +37,12 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
 
 import pl.betoncraft.flier.api.Flier;
 import pl.betoncraft.flier.api.content.Effect;
 import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.LoadingException;
 import pl.betoncraft.flier.api.core.Matcher;
 import pl.betoncraft.flier.core.MatchingEvent;
@@ -96,6 +100,8 @@ public class EffectListener implements Listener {
 
 	private final Game game;
 	private final Map<EventType, List<Effect>> effects = new HashMap<>();
+	private final Map<List<Object>, Pending> queue = new LinkedHashMap<>();
+	private BukkitTask flush;
 
 	/**
 	 * Creates new event listener which fires Effects when a matching event is
@@ -204,13 +210,46 @@ public class EffectListener implements Listener {
 		for (Effect effect : effects) {
 			if (checkEffect(effect, event)) {
 				if (effect.getType().isPlayerInvolved() && event instanceof MatchingPlayerEvent) {
-					effect.fire(Optional.of(((MatchingPlayerEvent) event).getPlayer()));
+					fire(effect, Optional.of(((MatchingPlayerEvent) event).getPlayer()));
 				} else {
-					effect.fire(Optional.empty());
+					fire(effect, Optional.empty());
 				}
 			}
 		}
 	}
+	
+	/**
+	 * Fires the Effect immediately or queues it until the end of the tick, so
+	 * it can be merged with identical invocations.
+	 */
+	private void fire(Effect effect, Optional<InGamePlayer> player) {
+		Object key = effect.getMergeKey(player);
+		if (key == null) {
+			effect.fire(player);
+			return;
+		}
+		Pending pending = queue.get(Arrays.asList(effect, key));
+		if (pending != null) {
+			pending.times++;
+			return;
+		}
+		queue.put(Arrays.asList(effect, key), new Pending(effect, player));
+		if (flush == null) {
+			flush = Bukkit.getScheduler().runTask(Flier.getInstance(), () -> flush());
+		}
+	}
+	
+	/**
+	 * Fires all queued Effects.
+	 */
+	private void flush() {
+		flush = null;
+		List<Pending> pending = new ArrayList<>(queue.values());
+		queue.clear();
+		for (Pending p : pending) {
+			p.effect.fire(p.player, p.times);
+		}
+	}
 
 	/**
 	 * Checks whenever the Effect matches the given MatchingEvent.
@@ -260,6 +299,34 @@ public class EffectListener implements Listener {
 	 */
 	public void stop() {
 		HandlerList.unregisterAll(this);
+		if (flush != null) {
+			flush.cancel();
+			flush = null;
+		}
+		queue.clear();
+	}
+
+	/**
+	 * Registers this listener again after it was stopped.
+	 */
+	public void start() {
+		Bukkit.getPluginManager().registerEvents(this, Flier.getInstance());
+	}
+
+	/**
+	 * Effect invocation waiting for the end of the tick.
+	 */
+	private static class Pending {
+		
+		private final Effect effect;
+		private final Optional<InGamePlayer> player;
+		private int times = 1;
+		
+		private Pending(Effect effect, Optional<InGamePlayer> player) {
+			this.effect = effect;
+			this.player = player;
+		}
+		
 	}
 
 }
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+
+/**
+ * Limits the amount of particle and sound packets sent by Flier in each tick.
+ * The limit is split fairly between games which send anything, and then
+ * between players in these games. Emissions with lower priority can use only
+ * a part of their share, so they are dropped first.
+ *
+ * @author Jakub Sapalski
+ */
+public class EmissionBudget extends BukkitRunnable {
+
+	/**
+	 * Priority of the emission.
+	 */
+	public enum Priority {
+		/**
+		 * Decorative effects, dropped first.
+		 */
+		COSMETIC(0.5),
+		/**
+		 * Trails of bullets and missiles.
+		 */
+		TRAIL(0.8),
+		/**
+		 * Hits, explosions and warnings, dropped last.
+		 */
+		FEEDBACK(1.0);
+
+		private final double share;
+
+		private Priority(double share) {
+			this.share = share;
+		}
+	}
+
+	private static EmissionBudget instance;
+
+	private final Pool particles;
+	private final Pool sounds;
+
+	/**
+	 * Starts the budget, replacing the previous one.
+	 * 
+	 * @param section
+	 *            configuration section with the limits, may be null
+	 */
+	public EmissionBudget(ConfigurationSection section) {
+		if (instance != null) {
+			instance.cancel();
+		}
+		instance = this;
+		particles = new Pool(section == null ? 0 : section.getInt("particles", 0));
+		sounds = new Pool(section == null ? 0 : section.getInt("sounds", 0));
+		runTaskTimer(Flier.getInstance(), 1, 1);
+	}
+
+	@Override
+	public void run() {
+		particles.nextTick();
+		sounds.nextTick();
+	}
+
+	/**
+	 * Requests sending particle packets.
+	 * 
+	 * @param game
+	 *            game in which the particles are sent, may be null
+	 * @param emitter
+	 *            player responsible for the particles, may be null
+	 * @param priority
+	 *            priority of the particles
+	 * @param amount
+	 *            amount of packets
+	 * @return the amount of packets which can be sent
+	 */
+	public static int particles(Game game, InGamePlayer emitter, Priority priority, int amount) {
+		return instance == null ? amount : instance.particles.request(game, emitter, priority, amount, false);
+	}
+
+	/**
+	 * Requests sending a particle broadcast, which can't be sent partially.
+	 * Nothing is used from the budget if it can't be sent whole.
+	 * 
+	 * @param game
+	 *            game in which the particle is sent, may be null
+	 * @param emitter
+	 *            player responsible for the particle, may be null
+	 * @param priority
+	 *            priority of the particle
+	 * @param amount
+	 *            amount of packets
+	 * @return whether the particle can be sent
+	 */
+	public static boolean particle(Game game, InGamePlayer emitter, Priority priority, int amount) {
+		return instance == null || instance.particles.request(game, emitter, priority, amount, true) == amount;
+	}
+
+	/**
+	 * Requests sending sound packets.
+	 * 
+	 * @param game
+	 *            game in which the sound is played, may be null
+	 * @param emitter
+	 *            player responsible for the sound, may be null
+	 * @param priority
+	 *            priority of the sound
+	 * @param amount
+	 *            amount of packets
+	 * @return whether the sound can be played; nothing is used from the budget
+	 *         if it can't
+	 */
+	public static boolean sound(Game game, InGamePlayer emitter, Priority priority, int amount) {
+		return instance == null || instance.sounds.request(game, emitter, priority, amount, true) == amount;
+	}
+
+	/**
+	 * Requests sending sound packets to separate players, granting as many of
+	 * them as the budget allows.
+	 * 
+	 * @param game
+	 *            game in which the sound is played, may be null
+	 * @param emitter
+	 *            player responsible for the sound, may be null
+	 * @param priority
+	 *            priority of the sound
+	 * @param amount
+	 *            amount of packets
+	 * @return the amount of packets which can be sent
+	 */
+	public static int sounds(Game game, InGamePlayer emitter, Priority priority, int amount) {
+		return instance == null ? amount : instance.sounds.request(game, emitter, priority, amount, false);
+	}
+
+	/**
+	 * @return the usage of the particle budget
+	 */
+	public static Pool getParticles() {
+		return instance == null ? null : instance.particles;
+	}
+
+	/**
+	 * @return the usage of the sound budget
+	 */
+	public static Pool getSounds() {
+		return instance == null ? null : instance.sounds;
+	}
+
+	/**
+	 * Budget of a single kind of packets.
+	 */
+	public static class Pool {
+
+		private final int limit;
+		private final Map<Game, Share> games = new HashMap<>();
+		private final Map<Game, Integer> lastEmitters = new HashMap<>();
+		private int lastGames = 0;
+		private int used = 0;
+		private int denied = 0;
+		private int lastUsed = 0;
+		private int lastDenied = 0;
+		private long totalUsed = 0;
+		private long totalDenied = 0;
+		private long ticks = 0;
+
+		private Pool(int limit) {
+			this.limit = limit;
+		}
+
+		private int request(Game game, InGamePlayer emitter, Priority priority, int amount, boolean whole) {
+			if (amount <= 0) {
+				return 0;
+			}
+			if (limit <= 0) {
+				used += amount;
+				return amount;
+			}
+			int granted = Math.min(amount, available(limit * priority.share, used));
+			Share share = null;
+			int[] emitterUsed = null;
+			if (game != null) {
+				share = games.computeIfAbsent(game, g -> new Share());
+				double gameLimit = (double) limit / Math.max(games.size(), lastGames);
+				granted = Math.min(granted, available(gameLimit * priority.share, share.used));
+				if (emitter != null) {
+					emitterUsed = share.emitters.computeIfAbsent(emitter, e -> new int[1]);
+					double emitterLimit = gameLimit / Math.max(share.emitters.size(), lastEmitters.getOrDefault(game, 1));
+					granted = Math.min(granted, available(emitterLimit * priority.share, emitterUsed[0]));
+				}
+			}
+			// broadcasts are sent whole or not at all
+			if (whole && granted < amount) {
+				granted = 0;
+			}
+			if (emitterUsed != null) {
+				emitterUsed[0] += granted;
+			}
+			if (share != null) {
+				share.used += granted;
+			}
+			used += granted;
+			denied += amount - granted;
+			return granted;
+		}
+
+		private static int available(double limit, int used) {
+			return Math.max(0, (int) limit - used);
+		}
+
+		private void nextTick() {
+			lastGames = games.size();
+			lastEmitters.clear();
+			for (Entry<Game, Share> entry : games.entrySet()) {
+				lastEmitters.put(entry.getKey(), entry.getValue().emitters.size());
+			}
+			games.clear();
+			lastUsed = used;
+			lastDenied = denied;
+			totalUsed += used;
+			totalDenied += denied;
+			used = 0;
+			denied = 0;
+			ticks++;
+		}
+
+		/**
+		 * @return the maximum amount of packets per tick, 0 if unlimited
+		 */
+		public int getLimit() {
+			return limit;
+		}
+
+		/**
+		 * @return the amount of packets sent in the last tick
+		 */
+		public int getLastUsed() {
+			return lastUsed;
+		}
+
+		/**
+		 * @return the amount of packets dropped in the last tick
+		 */
+		public int getLastDenied() {
+			return lastDenied;
+		}
+
+		/**
+		 * @return the average amount of packets sent per tick
+		 */
+		public double getAverageUsed() {
+			return ticks == 0 ? 0 : (double) totalUsed / ticks;
+		}
+
+		/**
+		 * @return the average amount of packets dropped per tick
+		 */
+		public double getAverageDenied() {
+			return ticks == 0 ? 0 : (double) totalDenied / ticks;
+		}
+
+		/**
+		 * @return the amount of games which sent packets in the last tick
+		 */
+		public int getLastGames() {
+			return lastGames;
+		}
+
+	}
+
+	private static class Share {
+
+		private final Map<InGamePlayer, int[]> emitters = new HashMap<>();
+		private int used = 0;
+
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.Arrays;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Height of the highest non-air block in each column of the game area. A
+ * column is scanned the first time it's needed and then kept (the terrain of
+ * arenas is not expected to change during the game), so the altitude
+ * of a player above the terrain can be read without walking down through
+ * blocks. Players outside of the area or under an overhang use the regular
+ * {@link Utils#getAltitude(Location, int)}.
+ *
+ * @author Jakub Sapalski
+ */
+public class Heightmap {
+
+	private static final int MAX_COLUMNS = 2048 * 2048;
+	private static final short UNKNOWN = Short.MIN_VALUE;
+
+	private final World world;
+	private final int minX, minZ, width, length;
+	private final int chunksZ;
+	private final boolean enabled;
+	private short[][] chunks;
+
+	/**
+	 * Creates an empty heightmap for the area. Bounds are inclusive. Nothing
+	 * is allocated until the first column is read, and then only the 16x16
+	 * chunks of columns which are actually used.
+	 */
+	public Heightmap(World world, int minX, int minZ, int maxX, int maxZ) {
+		this.world = world;
+		this.minX = minX;
+		this.minZ = minZ;
+		width = maxX - minX + 1;
+		length = maxZ - minZ + 1;
+		chunksZ = (length + 15) >> 4;
+		long columns = (long) width * length;
+		enabled = columns > 0 && columns <= MAX_COLUMNS;
+	}
+
+	/**
+	 * Counts air blocks below the location, like
+	 * {@link Utils#getAltitude(Location, int)}.
+	 * 
+	 * @param loc
+	 *            the location
+	 * @param max
+	 *            maximum altitude to count
+	 * @return the altitude, between 0 and max
+	 */
+	public int getAltitude(Location loc, int max) {
+		int x = loc.getBlockX() - minX;
+		int z = loc.getBlockZ() - minZ;
+		if (!enabled || loc.getWorld() != world || x < 0 || x >= width || z < 0 || z >= length) {
+			return Utils.getAltitude(loc, max);
+		}
+		if (chunks == null) {
+			chunks = new short[((width + 15) >> 4) * chunksZ][];
+		}
+		int chunk = (x >> 4) * chunksZ + (z >> 4);
+		short[] heights = chunks[chunk];
+		if (heights == null) {
+			heights = new short[256];
+			Arrays.fill(heights, UNKNOWN);
+			chunks[chunk] = heights;
+		}
+		int index = (x & 15) << 4 | (z & 15);
+		int top = heights[index];
+		if (top == UNKNOWN) {
+			top = scan(loc.getBlockX(), loc.getBlockZ());
+			heights[index] = (short) top;
+		}
+		if (top < 0) {
+			// no blocks at all, the altitude is unlimited
+			return max;
+		}
+		int y = loc.getBlockY();
+		if (y <= top) {
+			// there may be air under some blocks, it must be checked directly
+			return Utils.getAltitude(loc, max);
+		}
+		return Math.min(max, y - top - 1);
+	}
+
+	private int scan(int x, int z) {
+		for (int y = world.getMaxHeight() - 1; y >= 0; y--) {
+			if (world.getBlockAt(x, y, z).getType() != Material.AIR) {
+				return y;
+			}
+		}
+		return -1;
+	}
+
+}
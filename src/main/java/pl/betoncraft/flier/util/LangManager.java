@@ -51,6 +51,7 @@ import pl.betoncraft.flier.api.core.LoadingException;
 public class LangManager {
 
 	private static LangManager instance;
+	private static int version = 0;
 	private boolean api = false;
 	private String lang;
 	private ConfigurationSection messages;
@@ -73,12 +74,46 @@ public class LangManager {
 	 * Reloads the messages.
 	 */
 	public static void reload() throws LoadingException  {
+		reload(loadMessages());
+	}
+	
+	/**
+	 * Applies previously loaded messages. Must be called from the main thread.
+	 * 
+	 * @param file
+	 *            messages file loaded with {@link #loadMessages()}
+	 */
+	public static void reload(YamlConfiguration file) throws LoadingException {
+		if (instance.api) {
+			BetonLangAPI.reloadMessages(instance.flier);
+		} else {
+			instance.lang = instance.flier.getConfig().getString("language", "en");
+			instance.messages = file.getConfigurationSection(instance.lang);
+		}
+		version++;
+	}
+
+	/**
+	 * @return the number which changes each time the messages are reloaded,
+	 *         so translated strings cached elsewhere can be refreshed
+	 */
+	public static int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Creates the messages file if it does not exist, adds missing default
+	 * strings to it and parses it. Can be called from any thread.
+	 * 
+	 * @return the parsed messages file
+	 */
+	public static YamlConfiguration loadMessages() {
 		File file = new File(instance.flier.getDataFolder(), "messages.yml");
 		if (!file.exists()) {
 			try {
 				file.createNewFile();
 				FileOutputStream out = new FileOutputStream(file);
-				InputStream in = Flier.getInstance().getResource("messages.yml");
+				InputStream in = instance.flier.getResource("messages.yml");
 				byte[] buf = new byte[1024*1024];
 				int len = 0;
 				while ((len = in.read(buf)) > 0) {
@@ -89,10 +124,11 @@ public class LangManager {
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
+			return YamlConfiguration.loadConfiguration(file);
 		} else {
 			// update new strings
 			YamlConfiguration def = YamlConfiguration.loadConfiguration(
-					new InputStreamReader(Flier.getInstance().getResource("messages.yml"), Charset.forName("UTF-8")));
+					new InputStreamReader(instance.flier.getResource("messages.yml"), Charset.forName("UTF-8")));
 			YamlConfiguration cur = YamlConfiguration.loadConfiguration(file);
 			boolean changed = false;
 			for (String key : def.getKeys(true)) {
@@ -108,12 +144,7 @@ public class LangManager {
 					e.printStackTrace();
 				}
 			}
-		}
-		if (instance.api) {
-			BetonLangAPI.reloadMessages(instance.flier);
-		} else {
-			instance.lang = instance.flier.getConfig().getString("language", "en");
-			instance.messages = YamlConfiguration.loadConfiguration(file).getConfigurationSection(instance.lang);
+			return cur;
 		}
 	}
 	
@@ -23,72 +23,267 @@
  */
 package pl.betoncraft.flier.util;
 
-import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
-
-import com.google.common.io.Files;
-
-import pl.betoncraft.flier.api.Flier;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffect;
 
 /**
- * Manages the backup of player's data.
+ * Manages the backup of player's data. The state is kept in memory as a
+ * snapshot and written to the BackupStore in the background, so it can be
+ * restored after a crash.
  *
  * @author Jakub Sapalski
  */
 public class PlayerBackup {
-	
+
 	private Player player;
-	private File dataFile;
-	private File backupFile;
-	
+
+	private ItemStack[] contents;
+	private int heldSlot;
+	private String world;
+	private double x, y, z;
+	private float yaw, pitch;
+	private GameMode gameMode;
+	private double maxHealth;
+	private double health;
+	private int food;
+	private float saturation;
+	private float exhaustion;
+	private float exp;
+	private int level;
+	private int fireTicks;
+	private float fallDistance;
+	private float walkSpeed;
+	private boolean allowFlight;
+	private boolean flying;
+	private boolean pickup;
+	private boolean collidable;
+	private boolean glowing;
+	private boolean gravity;
+	private boolean invulnerable;
+	private Collection<PotionEffect> effects;
+
 	public PlayerBackup(Player player) {
 		this.player = player;
-		File dataDir = new File(player.getWorld().getWorldFolder(), "playerdata");
-		if (!dataDir.isDirectory()) {
-			dataDir.delete();
-			dataDir.mkdirs();
-		}
-		dataFile = new File(dataDir, String.format("%s.dat", player.getUniqueId().toString()));
-		File backupDir = new File(Flier.getInstance().getDataFolder(), "backup");
-		if (!backupDir.isDirectory()) {
-			backupDir.delete();
-			backupDir.mkdirs();
-		}
-		backupFile = new File(backupDir, String.format("%s.dat", player.getUniqueId().toString()));
 	}
-	
+
+	private PlayerBackup() {}
+
+	/**
+	 * Takes the snapshot of player's state, stores it and clears the player.
+	 *
+	 * @return whether the backup was successful
+	 */
+	@SuppressWarnings("deprecation")
 	public boolean save() {
-		player.saveData();
+		contents = player.getInventory().getContents().clone();
+		for (int i = 0; i < contents.length; i++) {
+			if (contents[i] != null) {
+				contents[i] = contents[i].clone();
+			}
+		}
+		heldSlot = player.getInventory().getHeldItemSlot();
+		Location loc = player.getLocation();
+		world = loc.getWorld().getName();
+		x = loc.getX();
+		y = loc.getY();
+		z = loc.getZ();
+		yaw = loc.getYaw();
+		pitch = loc.getPitch();
+		gameMode = player.getGameMode();
 		try {
-			Files.copy(dataFile, backupFile);
-		} catch (IOException e) {
-			e.printStackTrace();
-			return false;
+			maxHealth = player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getBaseValue();
+		} catch (NoSuchMethodError e) {
+			maxHealth = player.getMaxHealth();
+		}
+		health = player.getHealth();
+		food = player.getFoodLevel();
+		saturation = player.getSaturation();
+		exhaustion = player.getExhaustion();
+		exp = player.getExp();
+		level = player.getLevel();
+		fireTicks = player.getFireTicks();
+		fallDistance = player.getFallDistance();
+		walkSpeed = player.getWalkSpeed();
+		allowFlight = player.getAllowFlight();
+		flying = player.isFlying();
+		pickup = player.getCanPickupItems();
+		collidable = player.isCollidable();
+		glowing = player.isGlowing();
+		try {
+			gravity = player.hasGravity();
+		} catch (NoSuchMethodError e) {
+			gravity = true;
 		}
+		invulnerable = player.isInvulnerable();
+		effects = new ArrayList<>(player.getActivePotionEffects());
+		BackupStore.put(player.getUniqueId(), this);
 		Utils.clearPlayer(player);
 		return true;
 	}
-	
+
+	/**
+	 * Restores the player from the stored snapshot and releases it.
+	 *
+	 * @return whether there was a snapshot to restore
+	 */
 	public boolean load() {
-		if (!backupFile.exists() || !dataFile.exists()) {
+		PlayerBackup backup = BackupStore.get(player.getUniqueId());
+		if (backup == null) {
 			return false;
 		}
+		backup.apply(player);
+		BackupStore.release(player.getUniqueId());
+		return true;
+	}
+
+	@SuppressWarnings("deprecation")
+	private void apply(Player player) {
+		Utils.clearPlayer(player);
+		player.getInventory().setContents(contents);
+		player.getInventory().setHeldItemSlot(heldSlot);
+		World w = Bukkit.getWorld(world);
+		if (w != null) {
+			player.teleport(new Location(w, x, y, z, yaw, pitch));
+		}
 		try {
-			Files.copy(backupFile, dataFile);
-			backupFile.delete();
-		} catch (IOException e) {
-			e.printStackTrace();
-			return false;
+			player.getAttribute(Attribute.GENERIC_MAX_HEALTH).setBaseValue(maxHealth);
+		} catch (NoSuchMethodError e) {
+			player.setMaxHealth(maxHealth);
 		}
-		player.loadData();
-		player.teleport(player.getLocation()); // send teleportation packet explicitly
-		GameMode gamemode = player.getGameMode();
-		player.setGameMode(GameMode.ADVENTURE); // update it twice so the client displays correct gamemode
-		player.setGameMode(gamemode);
-		return true;
+		// a backup taken while dying would kill the player again
+		if (health > 0) {
+			player.setHealth(Math.min(health, maxHealth));
+		}
+		player.setFoodLevel(food);
+		player.setSaturation(saturation);
+		player.setExhaustion(exhaustion);
+		player.setExp(exp);
+		player.setLevel(level);
+		player.setFireTicks(fireTicks);
+		player.setFallDistance(fallDistance);
+		player.setWalkSpeed(walkSpeed);
+		player.setAllowFlight(allowFlight);
+		player.setFlying(allowFlight && flying);
+		player.setCanPickupItems(pickup);
+		player.setCollidable(collidable);
+		player.setGlowing(glowing);
+		try {
+			player.setGravity(gravity);
+		} catch (NoSuchMethodError e) {}
+		player.setInvulnerable(invulnerable);
+		player.addPotionEffects(effects);
+		player.setGameMode(gameMode == GameMode.ADVENTURE ? GameMode.SURVIVAL : GameMode.ADVENTURE);
+		player.setGameMode(gameMode); // update it twice so the client displays correct gamemode
+	}
+
+	/**
+	 * Writes the snapshot to the configuration section.
+	 */
+	void write(ConfigurationSection section) {
+		List<ItemStack> items = new ArrayList<>(contents.length);
+		for (ItemStack item : contents) {
+			items.add(item);
+		}
+		section.set("contents", items);
+		section.set("held_slot", heldSlot);
+		section.set("world", world);
+		section.set("x", x);
+		section.set("y", y);
+		section.set("z", z);
+		section.set("yaw", yaw);
+		section.set("pitch", pitch);
+		section.set("game_mode", gameMode.toString());
+		section.set("max_health", maxHealth);
+		section.set("health", health);
+		section.set("food", food);
+		section.set("saturation", saturation);
+		section.set("exhaustion", exhaustion);
+		section.set("exp", exp);
+		section.set("level", level);
+		section.set("fire_ticks", fireTicks);
+		section.set("fall_distance", fallDistance);
+		section.set("walk_speed", walkSpeed);
+		section.set("allow_flight", allowFlight);
+		section.set("flying", flying);
+		section.set("pickup", pickup);
+		section.set("collidable", collidable);
+		section.set("glowing", glowing);
+		section.set("gravity", gravity);
+		section.set("invulnerable", invulnerable);
+		section.set("effects", new ArrayList<>(effects));
+	}
+
+	/**
+	 * Reads the snapshot from the configuration section.
+	 *
+	 * @return the snapshot or null if it's incomplete
+	 */
+	static PlayerBackup read(ConfigurationSection section) {
+		PlayerBackup backup = new PlayerBackup();
+		List<?> items = section.getList("contents");
+		String gameMode = section.getString("game_mode");
+		if (items == null || gameMode == null) {
+			return null;
+		}
+		backup.contents = items.stream()
+				.map(item -> item instanceof ItemStack ? (ItemStack) item : null)
+				.toArray(ItemStack[]::new);
+		backup.heldSlot = section.getInt("held_slot");
+		backup.world = section.getString("world");
+		backup.x = section.getDouble("x");
+		backup.y = section.getDouble("y");
+		backup.z = section.getDouble("z");
+		backup.yaw = (float) section.getDouble("yaw");
+		backup.pitch = (float) section.getDouble("pitch");
+		try {
+			backup.gameMode = GameMode.valueOf(gameMode);
+		} catch (IllegalArgumentException e) {
+			backup.gameMode = GameMode.SURVIVAL;
+		}
+		backup.maxHealth = section.getDouble("max_health", 20);
+		backup.health = section.getDouble("health", 20);
+		backup.food = section.getInt("food", 20);
+		backup.saturation = (float) section.getDouble("saturation");
+		backup.exhaustion = (float) section.getDouble("exhaustion");
+		backup.exp = (float) section.getDouble("exp");
+		backup.level = section.getInt("level");
+		backup.fireTicks = section.getInt("fire_ticks");
+		backup.fallDistance = (float) section.getDouble("fall_distance");
+		backup.walkSpeed = (float) section.getDouble("walk_speed", 0.2);
+		backup.allowFlight = section.getBoolean("allow_flight");
+		backup.flying = section.getBoolean("flying");
+		backup.pickup = section.getBoolean("pickup", true);
+		backup.collidable = section.getBoolean("collidable", true);
+		backup.glowing = section.getBoolean("glowing");
+		backup.gravity = section.getBoolean("gravity", true);
+		backup.invulnerable = section.getBoolean("invulnerable");
+		List<?> effects = section.getList("effects", new ArrayList<>());
+		backup.effects = effects.stream()
+				.filter(effect -> effect instanceof PotionEffect)
+				.map(effect -> (PotionEffect) effect)
+				.collect(Collectors.toList());
+		return backup;
+	}
+
+	/**
+	 * Restores the player from a snapshot which was never released, for
+	 * example because the server crashed.
+	 */
+	static void recover(Player player, PlayerBackup backup) {
+		backup.apply(player);
+		BackupStore.release(player.getUniqueId());
 	}
 
 }
@@ -26,6 +26,7 @@ package pl.betoncraft.flier.util;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 
+import pl.betoncraft.flier.api.core.InGamePlayer;
 import pl.betoncraft.flier.api.core.Usage;
 
 /**
@@ -37,12 +38,11 @@ public class Position {
 	
 	private static final int AIR = 2;
 
-	public static boolean check(Player player, Usage.Where position) {
-		boolean ground = ((Entity) player.getPlayer()).isOnGround() ||
-				Utils.getAltitude(player.getPlayer().getLocation(), AIR) < AIR;
-		boolean air = !ground && player.getPlayer().isGliding() &&
-				Utils.getAltitude(player.getPlayer().getLocation(), AIR) == AIR;
-		boolean fall = !ground && !air;
+	public static boolean check(InGamePlayer player, Usage.Where position) {
+		Usage.Where current = player.getPosition();
+		boolean ground = current == Usage.Where.GROUND;
+		boolean air = current == Usage.Where.AIR;
+		boolean fall = current == Usage.Where.FALL;
 		switch (position) {
 		case GROUND:	 return ground;
 		case AIR:		 return air;
@@ -55,6 +55,20 @@ public class Position {
 		return false;
 	}
 	
+	/**
+	 * Classifies the position of the player as GROUND, AIR or FALL. Being
+	 * less than two blocks above the ground counts as standing on the ground.
+	 */
+	public static Usage.Where classify(InGamePlayer player) {
+		if (((Entity) player.getPlayer()).isOnGround() || player.getAltitude(AIR) < AIR) {
+			return Usage.Where.GROUND;
+		} else if (player.getPlayer().isGliding()) {
+			return Usage.Where.AIR;
+		} else {
+			return Usage.Where.FALL;
+		}
+	}
+	
 	public static Usage.Where get(Player player) {
 		boolean ground = ((Entity) player.getPlayer()).isOnGround();
 		boolean air = !ground && player.getPlayer().isGliding() && Utils.getAltitude(player.getPlayer().getLocation(), AIR) == AIR;
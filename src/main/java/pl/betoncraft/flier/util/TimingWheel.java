@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.scheduler.BukkitRunnable;
+
+import pl.betoncraft.flier.api.Flier;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+
+/**
+ * Runs delayed one-shot tasks on the game tick. Timers are kept in a
+ * hierarchical timing wheel, so scheduling and cancelling takes constant time,
+ * and a {@link Timer} can be scheduled again without creating new objects.
+ * Timers owned by a player are cancelled when the player leaves the game.
+ *
+ * @author Jakub Sapalski
+ */
+public class TimingWheel extends BukkitRunnable {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+	private static TimingWheel instance;
+
+	private final Timer[] slots = new Timer[SLOTS * LEVELS];
+	private final Map<InGamePlayer, Timer> owned = new HashMap<>();
+	private long now = 0;
+
+	/**
+	 * Starts the timing wheel. Timers scheduled before are not carried over.
+	 */
+	public TimingWheel() {
+		if (instance != null) {
+			instance.cancel();
+		}
+		instance = this;
+		runTaskTimer(Flier.getInstance(), 1, 1);
+	}
+
+	@Override
+	public void run() {
+		now++;
+		int index = (int) (now & MASK);
+		// move timers from higher levels down when the lower level wraps
+		for (int level = 1; index == 0 && level < LEVELS; level++) {
+			index = (int) ((now >> (BITS * level)) & MASK);
+			cascade(level * SLOTS + index);
+		}
+		int slot = (int) (now & MASK);
+		Timer timer;
+		while ((timer = slots[slot]) != null) {
+			unlink(timer);
+			try {
+				timer.task.run();
+			} catch (RuntimeException e) {
+				Flier.getInstance().getLogger().warning("Delayed task generated an exception: " + e.getMessage());
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * @return the current game tick, counted from the start of the plugin
+	 */
+	public static long getTick() {
+		return instance == null ? 0 : instance.now;
+	}
+
+	/**
+	 * Schedules a new one-shot task.
+	 * 
+	 * @param delay
+	 *            delay in ticks, at least 1
+	 * @param task
+	 *            the task
+	 * @return the scheduled Timer
+	 */
+	public static Timer schedule(int delay, Runnable task) {
+		Timer timer = new Timer(task);
+		timer.schedule(delay);
+		return timer;
+	}
+
+	/**
+	 * Schedules a new one-shot task, which will be cancelled if the player
+	 * leaves the game before it runs.
+	 * 
+	 * @param delay
+	 *            delay in ticks, at least 1
+	 * @param owner
+	 *            the player owning this task
+	 * @param task
+	 *            the task
+	 * @return the scheduled Timer
+	 */
+	public static Timer schedule(int delay, InGamePlayer owner, Runnable task) {
+		Timer timer = new Timer(task);
+		timer.schedule(delay, owner);
+		return timer;
+	}
+
+	/**
+	 * Cancels all timers owned by this player.
+	 * 
+	 * @param owner
+	 *            the player who left the game
+	 */
+	public static void cancelAll(InGamePlayer owner) {
+		if (instance == null) {
+			return;
+		}
+		Timer timer;
+		while ((timer = instance.owned.get(owner)) != null) {
+			timer.cancel();
+		}
+	}
+
+	private void cascade(int slot) {
+		Timer timer = slots[slot];
+		slots[slot] = null;
+		while (timer != null) {
+			Timer next = timer.next;
+			add(timer);
+			timer = next;
+		}
+	}
+
+	private void add(Timer timer) {
+		long delta = timer.when - now;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+			level++;
+		}
+		int slot = level * SLOTS + (int) ((timer.when >> (BITS * level)) & MASK);
+		timer.slot = slot;
+		timer.prev = null;
+		timer.next = slots[slot];
+		if (timer.next != null) {
+			timer.next.prev = timer;
+		}
+		slots[slot] = timer;
+	}
+
+	private void unlink(Timer timer) {
+		if (timer.prev != null) {
+			timer.prev.next = timer.next;
+		} else {
+			slots[timer.slot] = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.prev = timer.prev;
+		}
+		timer.prev = timer.next = null;
+		timer.slot = -1;
+		if (timer.owner != null) {
+			if (timer.ownerPrev != null) {
+				timer.ownerPrev.ownerNext = timer.ownerNext;
+			} else if (timer.ownerNext != null) {
+				owned.put(timer.owner, timer.ownerNext);
+			} else {
+				owned.remove(timer.owner);
+			}
+			if (timer.ownerNext != null) {
+				timer.ownerNext.ownerPrev = timer.ownerPrev;
+			}
+			timer.ownerPrev = timer.ownerNext = null;
+			timer.owner = null;
+		}
+	}
+
+	/**
+	 * A one-shot task which can be scheduled on the timing wheel any number of
+	 * times. Scheduling it again while it's waiting moves it to the new time.
+	 */
+	public static class Timer {
+
+		private final Runnable task;
+
+		private long when;
+		private int slot = -1;
+		private Timer prev;
+		private Timer next;
+		private InGamePlayer owner;
+		private Timer ownerPrev;
+		private Timer ownerNext;
+
+		/**
+		 * @param task
+		 *            the task to run when the timer expires
+		 */
+		public Timer(Runnable task) {
+			this.task = task;
+		}
+
+		/**
+		 * Schedules the task after the delay, replacing the previous schedule.
+		 * 
+		 * @param delay
+		 *            delay in ticks, at least 1
+		 */
+		public void schedule(int delay) {
+			schedule(delay, null);
+		}
+
+		/**
+		 * Schedules the task after the delay, replacing the previous schedule.
+		 * The task won't run if the owner leaves the game before that.
+		 * 
+		 * @param delay
+		 *            delay in ticks, at least 1
+		 * @param owner
+		 *            the player owning this task, may be null
+		 */
+		public void schedule(int delay, InGamePlayer owner) {
+			TimingWheel wheel = instance;
+			if (wheel == null) {
+				return;
+			}
+			if (slot >= 0) {
+				wheel.unlink(this);
+			}
+			when = wheel.now + Math.min(Math.max(delay, 1), MAX_DELAY);
+			wheel.add(this);
+			if (owner != null) {
+				this.owner = owner;
+				ownerNext = wheel.owned.put(owner, this);
+				if (ownerNext != null) {
+					ownerNext.ownerPrev = this;
+				}
+			}
+		}
+
+		/**
+		 * Cancels the task if it's waiting.
+		 */
+		public void cancel() {
+			if (slot >= 0 && instance != null) {
+				instance.unlink(this);
+			}
+		}
+
+		/**
+		 * @return whether the task is waiting to run
+		 */
+		public boolean isScheduled() {
+			return slot >= 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+import pl.betoncraft.flier.api.content.Game;
+import pl.betoncraft.flier.api.core.InGamePlayer;
+import pl.betoncraft.flier.util.EmissionBudget.Priority;
+
+/**
+ * Renders particle trails separately for each viewer. Viewers too far away or
+ * looking away from the trail don't receive it at all, and distant viewers get
+ * a thinner trail, sent as a single particle packet where possible.
+ *
+ * @author Jakub Sapalski
+ */
+public class TrailRenderer {
+
+	// viewers closer than this get the full trail
+	private static final double DETAIL_DISTANCE = 16;
+
+	private final Particle particle;
+	private final int amount;
+	private final double offsetX;
+	private final double offsetY;
+	private final double offsetZ;
+	private final double extra;
+	private final double density;
+	private final double viewDistanceSqr;
+
+	/**
+	 * @param particle
+	 *            type of the particle
+	 * @param amount
+	 *            amount of particles at each point of the trail
+	 * @param offsetX
+	 *            offset in X axis
+	 * @param offsetY
+	 *            offset in Y axis
+	 * @param offsetZ
+	 *            offset in Z axis
+	 * @param extra
+	 *            extra data of the particle, usually the speed
+	 * @param density
+	 *            amount of trail points per block for close viewers
+	 * @param viewDistance
+	 *            maximum distance of viewers from the trail
+	 */
+	public TrailRenderer(Particle particle, int amount, double offsetX, double offsetY, double offsetZ,
+			double extra, double density, double viewDistance) {
+		this.particle = particle;
+		this.amount = amount;
+		this.offsetX = offsetX;
+		this.offsetY = offsetY;
+		this.offsetZ = offsetZ;
+		this.extra = extra;
+		this.density = density;
+		this.viewDistanceSqr = viewDistance * viewDistance;
+	}
+
+	/**
+	 * Renders a straight segment of the trail to all viewers who can see it.
+	 * 
+	 * @param game
+	 *            game in which the trail is rendered
+	 * @param emitter
+	 *            player responsible for the trail
+	 * @param from
+	 *            starting point of the segment (not rendered)
+	 * @param segment
+	 *            vector from the starting point to the end of the segment
+	 */
+	public void renderSegment(Game game, InGamePlayer emitter, Location from, Vector segment) {
+		World world = from.getWorld();
+		Vector start = from.toVector();
+		Vector end = start.clone().add(segment);
+		double length = segment.length();
+		double lengthSqr = length * length;
+		for (Player viewer : world.getPlayers()) {
+			Location eyeLoc = viewer.getEyeLocation();
+			Vector eye = eyeLoc.toVector();
+			// distance to the closest point of the segment
+			double t = lengthSqr == 0 ? 0 : eye.clone().subtract(start).dot(segment) / lengthSqr;
+			t = Math.max(0, Math.min(1, t));
+			double distanceSqr = start.clone().add(segment.clone().multiply(t)).distanceSquared(eye);
+			if (distanceSqr > viewDistanceSqr) {
+				continue;
+			}
+			// skip viewers who have the whole segment behind them
+			if (distanceSqr > DETAIL_DISTANCE * DETAIL_DISTANCE) {
+				Vector direction = eyeLoc.getDirection();
+				if (start.clone().subtract(eye).dot(direction) < 0 && end.clone().subtract(eye).dot(direction) < 0) {
+					continue;
+				}
+			}
+			double distance = Math.sqrt(distanceSqr);
+			int points = (int) (length * density);
+			if (distance > DETAIL_DISTANCE) {
+				// distant viewers get fewer points
+				points = (int) (points * DETAIL_DISTANCE / distance);
+				if (amount > 0) {
+					// spread them along the segment in a single packet
+					if (EmissionBudget.particles(game, emitter, Priority.TRAIL, 1) == 0) {
+						continue;
+					}
+					Location middle = from.clone().add(segment.clone().multiply(0.5));
+					viewer.spawnParticle(particle, middle, Math.max(1, points) * amount,
+							Math.abs(segment.getX()) / 4 + offsetX,
+							Math.abs(segment.getY()) / 4 + offsetY,
+							Math.abs(segment.getZ()) / 4 + offsetZ,
+							extra);
+					continue;
+				}
+				// in the alternative mode offsets carry particle data, so points are sent one by one
+			}
+			points = EmissionBudget.particles(game, emitter, Priority.TRAIL, Math.max(1, points));
+			if (points == 0) {
+				continue;
+			}
+			Vector step = segment.clone().multiply(1.0 / points);
+			Location point = from.clone();
+			for (int i = 0; i < points; i++) {
+				point.add(step);
+				viewer.spawnParticle(particle, point, amount, offsetX, offsetY, offsetZ, extra);
+			}
+		}
+	}
+
+	/**
+	 * Renders a burst of particles to all viewers in range.
+	 * 
+	 * @param game
+	 *            game in which the burst is rendered
+	 * @param emitter
+	 *            player responsible for the burst
+	 * @param loc
+	 *            location of the burst
+	 * @param count
+	 *            amount of particles
+	 * @param speed
+	 *            speed of the particles
+	 */
+	public void renderBurst(Game game, InGamePlayer emitter, Location loc, int count, double speed) {
+		for (Player viewer : loc.getWorld().getPlayers()) {
+			if (viewer.getEyeLocation().distanceSquared(loc) <= viewDistanceSqr
+					&& EmissionBudget.particles(game, emitter, Priority.FEEDBACK, 1) > 0) {
+				viewer.spawnParticle(particle, loc, count, 0, 0, 0, speed);
+			}
+		}
+	}
+
+}
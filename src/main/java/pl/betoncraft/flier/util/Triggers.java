@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2017 Jakub Sapalski
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ */
+package pl.betoncraft.flier.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import pl.betoncraft.flier.api.core.LoadingException;
+
+/**
+ * Assigns bits to trigger names, so triggers which happened in a tick can be
+ * stored in a single long and checked with a bitwise AND. Names are
+ * registered when trigger activators are loaded.
+ *
+ * @author Jakub Sapalski
+ */
+public class Triggers {
+
+	private static final int MAX = Long.SIZE;
+	private static final Map<String, Long> masks = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the trigger name, if it wasn't registered before.
+	 * 
+	 * @param name
+	 *            name of the trigger
+	 * @return the bit mask of this trigger
+	 * @throws LoadingException
+	 *             when there are too many different triggers
+	 */
+	public static synchronized long register(String name) throws LoadingException {
+		Long mask = masks.get(name);
+		if (mask == null) {
+			if (masks.size() >= MAX) {
+				throw new LoadingException(String.format("There can't be more than %d different triggers.", MAX));
+			}
+			mask = 1L << masks.size();
+			masks.put(name, mask);
+		}
+		return mask;
+	}
+
+	/**
+	 * @param name
+	 *            name of the trigger
+	 * @return the bit mask of this trigger, or 0 if no activator uses it
+	 */
+	public static long mask(String name) {
+		Long mask = masks.get(name);
+		return mask == null ? 0 : mask;
+	}
+
+}